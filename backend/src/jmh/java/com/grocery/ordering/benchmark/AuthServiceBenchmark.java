@@ -0,0 +1,40 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin and customer login, dominated by password hashing
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthServiceBenchmark {
+
+    @Benchmark
+    public AuthService.AuthResult adminLogin(BenchmarkApplication application) {
+        return application.getAuthService()
+            .login(BenchmarkDatabase.ADMIN_USERNAME, BenchmarkDatabase.ADMIN_PASSWORD, "ADMIN");
+    }
+
+    @Benchmark
+    public AuthService.AuthResult customerLogin(BenchmarkApplication application) {
+        BenchmarkDatabase database = application.getDatabase();
+        String email = database.customerEmail(ThreadLocalRandom.current().nextInt(database.getCustomerCount()));
+        return application.getAuthService()
+            .login(email, BenchmarkDatabase.CUSTOMER_PASSWORD, "CUSTOMER");
+    }
+}
@@ -0,0 +1,100 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.OnlineGroceryOrderingSystemApplication;
+import com.grocery.ordering.service.AuthService;
+import com.grocery.ordering.service.OrderService;
+import com.grocery.ordering.service.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application context shared by the benchmarks of one trial
+ * Starts the real service layer (without the web server) against a freshly
+ * seeded H2 database. Run with -p scale=N to grow the data set.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@State(Scope.Benchmark)
+public class BenchmarkApplication {
+
+    @Param("1")
+    public int scale;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductService productService;
+    private AuthService authService;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        database = BenchmarkDatabase.create(scale);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(OnlineGroceryOrderingSystemApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false);
+        configure(builder);
+        context = builder.run(arguments().toArray(new String[0]));
+
+        orderService = context.getBean(OrderService.class);
+        productService = context.getBean(ProductService.class);
+        authService = context.getBean(AuthService.class);
+    }
+
+    /**
+     * Command line arguments of the application; they override application.properties
+     */
+    protected List<String> arguments() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--spring.datasource.url=" + database.getUrl());
+        arguments.add("--spring.datasource.username=sa");
+        arguments.add("--spring.datasource.password=");
+        arguments.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        arguments.add("--logging.level.com.grocery.ordering=WARN");
+        arguments.add("--logging.level.org.springframework.security=WARN");
+        return arguments;
+    }
+
+    /**
+     * Hook for benchmarks that need to adjust the application before it starts
+     */
+    protected void configure(SpringApplicationBuilder builder) {
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public OrderService getOrderService() {
+        return orderService;
+    }
+
+    public ProductService getProductService() {
+        return productService;
+    }
+
+    public AuthService getAuthService() {
+        return authService;
+    }
+
+    public BenchmarkDatabase getDatabase() {
+        return database;
+    }
+}
@@ -0,0 +1,180 @@
+package com.grocery.ordering.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Embedded H2 database (MySQL mode) for benchmarks
+ * The schema comes from database/init.sql; statements H2 cannot run (USE,
+ * stored procedures, GRANT, FLUSH) are skipped. On top of the sample rows
+ * the database is seeded with scale * 100 customers, scale * 100 products
+ * and scale * 1000 orders from a fixed random seed.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public final class BenchmarkDatabase {
+
+    public static final String ADMIN_USERNAME = "admin";
+    public static final String ADMIN_PASSWORD = "admin123";
+    public static final String CUSTOMER_PASSWORD = "customer123";
+
+    static final String[] PRODUCE = {
+        "Apples", "Bananas", "Rice", "Wheat Flour", "Milk", "Bread", "Eggs", "Chicken", "Tomatoes",
+        "Onions", "Potatoes", "Sugar", "Salt", "Cooking Oil", "Tea", "Coffee", "Butter", "Cheese",
+        "Yogurt", "Lentils", "Oats", "Honey", "Spinach", "Carrots", "Oranges", "Grapes", "Pasta"
+    };
+    private static final String[] BRANDS = {"Organic", "Fresh", "Farm", "Classic", "Premium", "Daily"};
+    private static final String[] PACKS = {"250g", "500g", "1kg", "5kg", "1L", "6 pack"};
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"};
+
+    private final String url;
+    private final int customerCount;
+    private final int productCount;
+
+    private BenchmarkDatabase(String url, int customerCount, int productCount) {
+        this.url = url;
+        this.customerCount = customerCount;
+        this.productCount = productCount;
+    }
+
+    /**
+     * Create a fresh in-memory database with the schema and seed data
+     */
+    public static BenchmarkDatabase create(int scale) throws IOException {
+        String url = "jdbc:h2:mem:bench" + System.nanoTime() +
+                     ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        for (String statement : readSchema(schemaPath())) {
+            jdbcTemplate.execute(statement);
+        }
+
+        BenchmarkDatabase database = new BenchmarkDatabase(url, scale * 100, scale * 100);
+        database.seed(jdbcTemplate, scale * 1000);
+        return database;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * ID of a seeded customer, 0 <= index < customer count
+     */
+    public String customerId(int index) {
+        return String.format(Locale.ROOT, "C%05d", index);
+    }
+
+    /**
+     * Login email of a seeded customer
+     */
+    public String customerEmail(int index) {
+        return "customer" + index + "@bench.local";
+    }
+
+    public int getCustomerCount() {
+        return customerCount;
+    }
+
+    /**
+     * Seeded product IDs follow the 15 sample products
+     */
+    public int productId(int index) {
+        return 16 + index;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, int orderCount) {
+        Random random = new Random(42);
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+
+        jdbcTemplate.update("UPDATE admin_users SET password = ? WHERE username = ?",
+                            encoder.encode(ADMIN_PASSWORD), ADMIN_USERNAME);
+
+        String customerHash = encoder.encode(CUSTOMER_PASSWORD);
+        List<Object[]> customers = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(new Object[]{customerId(i), "Customer " + i, customerEmail(i), customerHash,
+                                       i + " Benchmark Street", String.format(Locale.ROOT, "9%09d", i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (customer_id, full_name, email, password, address, " +
+                                 "contact_number) VALUES (?, ?, ?, ?, ?, ?)", customers);
+
+        // Stock is large enough that order benchmarks never run out
+        List<Object[]> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + PRODUCE[random.nextInt(PRODUCE.length)] +
+                          " (" + PACKS[random.nextInt(PACKS.length)] + ") #" + i;
+            products.add(new Object[]{name, BigDecimal.valueOf(10 + random.nextInt(990)), 1_000_000_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (product_name, price, quantity) VALUES (?, ?, ?)", products);
+
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        List<Object[]> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            int quantity = 1 + random.nextInt(5);
+            orders.add(new Object[]{customerId(random.nextInt(customerCount)), productId(random.nextInt(productCount)),
+                                    Timestamp.valueOf(start.plusMinutes(random.nextInt(365 * 24 * 60))),
+                                    BigDecimal.valueOf(quantity * 100L), quantity,
+                                    STATUSES[random.nextInt(STATUSES.length)]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (customer_id, product_id, order_date, order_amount, " +
+                                 "quantity_ordered, status) VALUES (?, ?, ?, ?, ?, ?)", orders);
+    }
+
+    private static Path schemaPath() {
+        return Path.of(System.getProperty("bench.init-sql", "../database/init.sql"));
+    }
+
+    /**
+     * Split init.sql into statements H2 can execute
+     */
+    static List<String> readSchema(Path path) throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inDelimiterBlock = false;
+
+        for (String line : Files.readAllLines(path)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("DELIMITER")) {
+                inDelimiterBlock = !trimmed.equals("DELIMITER ;");
+                continue;
+            }
+            if (inDelimiterBlock || trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statement = statement.substring(0, statement.length() - 1);
+                current.setLength(0);
+                if (isSupported(statement)) {
+                    statements.add(statement);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private static boolean isSupported(String statement) {
+        String keyword = statement.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        return !keyword.equals("USE") && !keyword.equals("GRANT") && !keyword.equals("FLUSH") &&
+               !keyword.equals("SELECT");
+    }
+}
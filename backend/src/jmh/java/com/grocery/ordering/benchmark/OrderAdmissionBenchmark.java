@@ -0,0 +1,161 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.model.Product;
+import com.grocery.ordering.repository.CustomerRepository;
+import com.grocery.ordering.repository.OrderRepository;
+import com.grocery.ordering.repository.ProductRepository;
+import com.grocery.ordering.service.OrderRejectedException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database round trips per single-product order
+ * createOrder is the admission path of OrderService. previousChecks replays
+ * the checks createOrder used to make, straight against the repositories:
+ * load the customer, load the product three times (validation, availability,
+ * reservation), reserve with a conditional UPDATE and insert. Both count
+ * every statement and commit through RoundTripCountingDataSource; divide the
+ * roundTrips counter by the orders counter for round trips per order.
+ * unknownCustomer is an order the customer check must reject: a failed
+ * conditional UPDATE without the engine, an orders foreign key violation
+ * with it. Every case runs with inventoryEngine both off and on.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderAdmissionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Admission extends BenchmarkApplication {
+
+        @Param({"false", "true"})
+        public boolean inventoryEngine;
+
+        private RoundTripCountingDataSource dataSource;
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            arguments.add("--app.inventory.engine.enabled=" + inventoryEngine);
+            return arguments;
+        }
+
+        @Override
+        protected void configure(SpringApplicationBuilder builder) {
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource target && !(bean instanceof RoundTripCountingDataSource)) {
+                        dataSource = new RoundTripCountingDataSource(target);
+                        return dataSource;
+                    }
+                    return bean;
+                }
+            }));
+        }
+
+        long roundTrips() {
+            return dataSource.getRoundTrips();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+        public long roundTrips;
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            roundTrips = 0;
+            orders = 0;
+        }
+    }
+
+    @Benchmark
+    public Order createOrder(Admission application, RoundTrips counters) {
+        long before = application.roundTrips();
+        Order order = application.getOrderService().createOrder(newOrder(application));
+        counters.roundTrips += application.roundTrips() - before;
+        counters.orders++;
+        return order;
+    }
+
+    @Benchmark
+    public Order previousChecks(Admission application, RoundTrips counters) {
+        CustomerRepository customerRepository = application.getBean(CustomerRepository.class);
+        ProductRepository productRepository = application.getBean(ProductRepository.class);
+        OrderRepository orderRepository = application.getBean(OrderRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+
+        long before = application.roundTrips();
+        Order order = newOrder(application);
+        Order saved = transaction.execute(status -> {
+            customerRepository.findByCustomerId(order.getCustomerId()).orElseThrow();
+            Product product = productRepository.findById(order.getProductId()).orElseThrow();
+            productRepository.findById(order.getProductId()).orElseThrow();
+            productRepository.findById(order.getProductId()).orElseThrow();
+            order.setOrderAmount(product.getPrice().multiply(new BigDecimal(order.getQuantityOrdered())));
+            if (!productRepository.reserveQuantity(order.getProductId(), order.getQuantityOrdered())) {
+                throw new IllegalStateException("Benchmark stock ran out");
+            }
+            return orderRepository.save(order);
+        });
+        counters.roundTrips += application.roundTrips() - before;
+        counters.orders++;
+        return saved;
+    }
+
+    @Benchmark
+    public OrderRejectedException unknownCustomer(Admission application, RoundTrips counters) {
+        Order order = newOrder(application);
+        order.setCustomerId("CUS9999999");
+
+        long before = application.roundTrips();
+        try {
+            application.getOrderService().createOrder(order);
+        } catch (OrderRejectedException e) {
+            if (e.getReason() != OrderRejectedException.Reason.CUSTOMER_NOT_FOUND) {
+                throw new IllegalStateException("Rejected for " + e.getReason() + " instead of the customer", e);
+            }
+            counters.roundTrips += application.roundTrips() - before;
+            counters.orders++;
+            return e;
+        }
+        throw new IllegalStateException("Order for an unknown customer was admitted");
+    }
+
+    private static Order newOrder(BenchmarkApplication application) {
+        BenchmarkDatabase database = application.getDatabase();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Order(database.customerId(random.nextInt(database.getCustomerCount())),
+                         database.productId(random.nextInt(database.getProductCount())),
+                         null, 1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.service.OrderAnalyticsSnapshot;
+import com.grocery.ordering.service.OrderAnalyticsSnapshot.GroupBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order analytics summaries over the whole columnar snapshot
+ * Run with -p scale=1000 for a million orders.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderAnalyticsBenchmark {
+
+    @Param({"DAY", "STATUS", "PRODUCT", "CUSTOMER"})
+    public GroupBy groupBy;
+
+    @Benchmark
+    public OrderAnalyticsSnapshot.Summary summarize(BenchmarkApplication application) {
+        return application.getOrderService().getOrderAnalytics(groupBy, null, null, null, 100);
+    }
+}
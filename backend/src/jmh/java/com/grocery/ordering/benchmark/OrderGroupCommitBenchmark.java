@@ -0,0 +1,58 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent order placement with and without group commit
+ * The embedded database does not fsync on commit, so this understates the
+ * gain on a disk-backed MySQL server, where commits dominate insert cost.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class OrderGroupCommitBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class GroupCommit extends BenchmarkApplication {
+
+        @Param({"false", "true"})
+        public boolean groupCommit;
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            arguments.add("--app.orders.group-commit.enabled=" + groupCommit);
+            return arguments;
+        }
+    }
+
+    @Benchmark
+    public Order createOrder(GroupCommit application) {
+        BenchmarkDatabase database = application.getDatabase();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order(database.customerId(random.nextInt(database.getCustomerCount())),
+                                database.productId(random.nextInt(database.getProductCount())),
+                                null, 1);
+        return application.getOrderService().createOrder(order);
+    }
+}
@@ -0,0 +1,42 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order placement and statistics
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Benchmark
+    public Order createOrder(BenchmarkApplication application) {
+        BenchmarkDatabase database = application.getDatabase();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order(database.customerId(random.nextInt(database.getCustomerCount())),
+                                database.productId(random.nextInt(database.getProductCount())),
+                                null, 1);
+        return application.getOrderService().createOrder(order);
+    }
+
+    @Benchmark
+    public OrderService.OrderStatistics getOrderStatistics(BenchmarkApplication application) {
+        return application.getOrderService().getOrderStatistics();
+    }
+}
@@ -0,0 +1,89 @@
+package com.grocery.ordering.benchmark;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource counting the database round trips made through it
+ * Every statement execution (a batch counts once) and every commit or
+ * rollback is one round trip.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    public RoundTripCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) -> {
+            switch (method.getName()) {
+                case "commit", "rollback" -> roundTrips.incrementAndGet();
+                case "createStatement" -> {
+                    return proxy(Statement.class, (Statement) result, this::countExecution);
+                }
+                case "prepareStatement" -> {
+                    return proxy(PreparedStatement.class, (PreparedStatement) result, this::countExecution);
+                }
+                case "prepareCall" -> {
+                    return proxy(CallableStatement.class, (CallableStatement) result, this::countExecution);
+                }
+                default -> {
+                }
+            }
+            return result;
+        });
+    }
+
+    private Object countExecution(Method method, Object result) {
+        if (method.getName().startsWith("execute")) {
+            roundTrips.incrementAndGet();
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return handler.handle(method, result);
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(Method method, Object result);
+    }
+}
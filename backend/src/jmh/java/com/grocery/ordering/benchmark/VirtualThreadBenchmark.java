@@ -0,0 +1,116 @@
+package com.grocery.ordering.benchmark;
+
+import com.grocery.ordering.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent shoppers served by platform or virtual threads
+ * Each shopper views a product, waits on a simulated upstream call and places
+ * an order. One operation serves the whole burst, so throughput is bursts per
+ * second and the sampled time of a burst is bounded by its slowest shopper.
+ * The platform executor matches Tomcat's default of 200 worker threads.
+ * The result of an operation is the number of orders actually placed.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @State(Scope.Benchmark)
+    public static class Shoppers extends BenchmarkApplication {
+
+        @Param({"platform", "virtual"})
+        public String executor;
+
+        @Param({"false", "true"})
+        public boolean bulkhead;
+
+        @Param("1024")
+        public int shoppers;
+
+        @Param("10")
+        public int upstreamLatencyMs;
+
+        private ExecutorService executorService;
+
+        @Setup(Level.Trial)
+        public void startExecutor() {
+            executorService = "virtual".equals(executor)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        }
+
+        @TearDown(Level.Trial)
+        public void stopExecutor() {
+            executorService.shutdownNow();
+        }
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            arguments.add("--app.datasource.bulkhead.enabled=" + bulkhead);
+            return arguments;
+        }
+    }
+
+    @Benchmark
+    public int serveBurst(Shoppers state) throws InterruptedException, ExecutionException {
+        List<Future<Order>> requests = new ArrayList<>(state.shoppers);
+        for (int i = 0; i < state.shoppers; i++) {
+            requests.add(state.executorService.submit(() -> shop(state)));
+        }
+
+        int placed = 0;
+        for (Future<Order> request : requests) {
+            if (request.get() != null) {
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    private static Order shop(Shoppers state) throws InterruptedException {
+        BenchmarkDatabase database = state.getDatabase();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int productId = database.productId(random.nextInt(database.getProductCount()));
+
+        state.getProductService().findById(productId);
+        Thread.sleep(state.upstreamLatencyMs);
+
+        Order order = new Order(database.customerId(random.nextInt(database.getCustomerCount())), productId, null, 1);
+        try {
+            return state.getOrderService().createOrder(order);
+        } catch (RuntimeException e) {
+            // Embedded H2 now and then hands out a duplicate AUTO_INCREMENT key under
+            // heavy concurrent inserts; count it as a lost order rather than end the run
+            return null;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.grocery.ordering.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.grocery.ordering.dto.ApiResponse;
+import com.grocery.ordering.dto.CursorPage;
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of one page of orders and one page of products wrapped in ApiResponse
+ * defaultMapper is the mapper the application used before (reflection, no
+ * filters); blackbird adds only the generated accessors; configuredMapper is the application's mapper with Blackbird and
+ * the always-on fields filter; projected* write only the fields a list view
+ * needs, as with ?fields=. Output goes to a reused buffer, so the numbers
+ * are serialization cost only.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    private ObjectWriter defaultWriter;
+    private ObjectWriter configuredWriter;
+    private ObjectWriter blackbirdWriter;
+    private ObjectWriter projectedOrderWriter;
+    private ObjectWriter projectedProductWriter;
+    private ApiResponse<CursorPage<Order>> orders;
+    private ApiResponse<CursorPage<Product>> products;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json().build();
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().jsonSerializationCustomizer().customize(builder);
+        ObjectMapper configuredMapper = builder.build();
+
+        defaultWriter = defaultMapper.writer();
+        blackbirdWriter = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new BlackbirdModule()).build().writer();
+        configuredWriter = configuredMapper.writer();
+        projectedOrderWriter = configuredMapper.writer(JacksonConfig.allFields().addFilter(JacksonConfig.FIELDS_FILTER,
+            SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("orderId", "orderDate", "orderAmount", "status"))));
+        projectedProductWriter = configuredMapper.writer(JacksonConfig.allFields().addFilter(JacksonConfig.FIELDS_FILTER,
+            SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("productId", "productName", "price"))));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orderList = new ArrayList<>(pageSize);
+        List<Product> productList = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Order order = new Order(1000 + i, String.format("CUS%07d", i), i % 50 + 1, now.minusMinutes(i),
+                                    new BigDecimal("12.50").multiply(BigDecimal.valueOf(i % 7 + 1)), i % 7 + 1,
+                                    OrderStatus.values()[i % OrderStatus.values().length]);
+            order.setCustomerName("Customer " + i);
+            order.setProductName("Product " + (i % 50 + 1));
+            orderList.add(order);
+
+            Product product = new Product("Product " + i, new BigDecimal("3.99"), 100 + i);
+            product.setProductId(i + 1);
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            productList.add(product);
+        }
+        orders = ApiResponse.success("Orders retrieved", new CursorPage<>(orderList, "cursor", pageSize));
+        products = ApiResponse.success("Products retrieved", new CursorPage<>(productList, "cursor", pageSize));
+    }
+
+    @Benchmark
+    public int ordersDefaultMapper() throws IOException {
+        return write(defaultWriter, orders);
+    }
+
+    @Benchmark
+    public int ordersConfiguredMapper() throws IOException {
+        return write(configuredWriter, orders);
+    }
+
+    @Benchmark
+    public int ordersBlackbirdOnly() throws IOException {
+        return write(blackbirdWriter, orders);
+    }
+
+    @Benchmark
+    public int ordersProjected() throws IOException {
+        return write(projectedOrderWriter, orders);
+    }
+
+    @Benchmark
+    public int productsDefaultMapper() throws IOException {
+        return write(defaultWriter, products);
+    }
+
+    @Benchmark
+    public int productsConfiguredMapper() throws IOException {
+        return write(configuredWriter, products);
+    }
+
+    @Benchmark
+    public int productsProjected() throws IOException {
+        return write(projectedProductWriter, products);
+    }
+
+    private int write(ObjectWriter writer, Object value) throws IOException {
+        out.reset();
+        writer.writeValue(out, value);
+        return out.size();
+    }
+}
@@ -0,0 +1,113 @@
+package com.grocery.ordering.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes generated rows as tab-separated files for MySQL's LOAD DATA
+ * One file per table plus load-data.sql, which loads them with
+ * LOAD DATA LOCAL INFILE (the server needs local_infile=1 and the client
+ * --local-infile) and moves the customer ID sequence past the generated IDs.
+ * Values never contain tabs or newlines; NULL is written as \N.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+final class CsvDatasetSink implements DatasetSink {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path directory;
+    private final Writer customers;
+    private final Writer products;
+    private final Writer orders;
+    private final Writer orderItems;
+
+    CsvDatasetSink(Path directory) throws IOException {
+        this.directory = directory.toAbsolutePath();
+        Files.createDirectories(this.directory);
+        customers = open("customers.tsv");
+        products = open("products.tsv");
+        orders = open("orders.tsv");
+        orderItems = open("order_items.tsv");
+    }
+
+    @Override
+    public void customer(String customerId, String fullName, String email, String passwordHash,
+                         String address, String contactNumber) throws IOException {
+        row(customers, customerId, fullName, email, passwordHash, address, contactNumber);
+    }
+
+    @Override
+    public void product(int productId, String productName, BigDecimal price, int quantity, int reserved)
+            throws IOException {
+        row(products, productId, productName, price.toPlainString(), quantity, reserved);
+    }
+
+    @Override
+    public void order(int orderId, String customerId, Integer productId, LocalDateTime orderDate,
+                      BigDecimal orderAmount, int quantityOrdered, String status) throws IOException {
+        row(orders, orderId, customerId, productId, TIMESTAMP.format(orderDate), orderAmount.toPlainString(),
+            quantityOrdered, status, 1);
+    }
+
+    @Override
+    public void orderItem(int orderId, int productId, int quantity, BigDecimal unitPrice, BigDecimal lineAmount)
+            throws IOException {
+        row(orderItems, orderId, productId, quantity, unitPrice.toPlainString(), lineAmount.toPlainString());
+    }
+
+    @Override
+    public void finish(long nextCustomerNumber) throws IOException {
+        String script = String.join("\n",
+            "-- Generated by DatasetGenerator; run with: mysql --local-infile=1 grocery_db < load-data.sql",
+            "SET FOREIGN_KEY_CHECKS = 0;",
+            "SET UNIQUE_CHECKS = 0;",
+            load("customers.tsv", "customers",
+                 "customer_id, full_name, email, password, address, contact_number"),
+            load("products.tsv", "products",
+                 "product_id, product_name, price, quantity, reserved"),
+            load("orders.tsv", "orders",
+                 "order_id, customer_id, product_id, order_date, order_amount, quantity_ordered, status, " +
+                 "reservation_applied"),
+            load("order_items.tsv", "order_items",
+                 "order_id, product_id, quantity, unit_price, line_amount"),
+            "UPDATE id_sequences SET next_value = GREATEST(next_value, " + nextCustomerNumber + ") " +
+            "WHERE sequence_name = 'customer';",
+            "SET UNIQUE_CHECKS = 1;",
+            "SET FOREIGN_KEY_CHECKS = 1;",
+            "");
+        Files.writeString(directory.resolve("load-data.sql"), script);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Writer writer : new Writer[]{customers, products, orders, orderItems}) {
+            writer.close();
+        }
+    }
+
+    private String load(String file, String table, String columns) {
+        return "LOAD DATA LOCAL INFILE '" + directory.resolve(file).toString().replace("'", "''") + "' " +
+               "INTO TABLE " + table + " (" + columns + ");";
+    }
+
+    private BufferedWriter open(String file) throws IOException {
+        return Files.newBufferedWriter(directory.resolve(file));
+    }
+
+    private static void row(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write('\t');
+            }
+            writer.write(values[i] == null ? "\\N" : values[i].toString());
+        }
+        writer.write('\n');
+    }
+}
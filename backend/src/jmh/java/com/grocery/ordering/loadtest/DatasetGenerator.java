@@ -0,0 +1,290 @@
+package com.grocery.ordering.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded, production-scale dataset for load tests
+ * Generates customers, products and orders (single-product and cart orders
+ * with items) from a fixed seed, so the same arguments always produce the
+ * same rows. Orders pick customers and products from Zipf distributions, so
+ * a few products and customers account for most orders. Order dates spread
+ * over --days before --end-date, and status follows age: recent orders are
+ * still PENDING or CONFIRMED, older ones DELIVERED or CANCELLED.
+ * products.reserved holds what the open orders reserve, as the application
+ * would have left it.
+ *
+ * Rows go to the database with batched inserts (--url) or to tab-separated
+ * files with a LOAD DATA script (--out). All customers share the password
+ * customer123 and log in as customer{number}@load.test.
+ *
+ * ./mvnw -Pperf test-compile exec:java -Dexec.mainClass=com.grocery.ordering.loadtest.DatasetGenerator
+ *        -Dexec.args="--url=jdbc:mysql://localhost:3306/grocery_db --user=grocery_user --password=..."
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public final class DatasetGenerator {
+
+    public static final String CUSTOMER_PASSWORD = "customer123";
+    public static final int DEFAULT_FIRST_CUSTOMER = 5_000_000;
+    public static final int DEFAULT_FIRST_PRODUCT_ID = 100_001;
+
+    /**
+     * Words product names are built from; search traffic uses them as terms
+     */
+    public static final String[] PRODUCE = {
+        "Apples", "Bananas", "Rice", "Wheat Flour", "Milk", "Bread", "Eggs", "Chicken", "Tomatoes",
+        "Onions", "Potatoes", "Sugar", "Salt", "Cooking Oil", "Tea", "Coffee", "Butter", "Cheese",
+        "Yogurt", "Lentils", "Oats", "Honey", "Spinach", "Carrots", "Oranges", "Grapes", "Pasta",
+        "Basmati", "Paneer", "Ghee", "Almonds", "Cashews", "Biscuits", "Noodles", "Juice", "Water"
+    };
+    private static final String[] BRANDS = {"Organic", "Fresh", "Farm", "Classic", "Premium", "Daily", "Valley",
+                                            "Golden", "Green", "Sunrise"};
+    private static final String[] PACKS = {"250g", "500g", "1kg", "5kg", "1L", "2L", "6 pack", "12 pack"};
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Bengaluru", "Chennai", "Pune", "Kolkata",
+                                            "Hyderabad", "Jaipur"};
+
+    private final int customerCount;
+    private final int productCount;
+    private final long orderCount;
+    private final int firstCustomer;
+    private final int firstProductId;
+    private final int firstOrderId;
+    private final double cartShare;
+    private final int days;
+    private final LocalDateTime end;
+    private final long seed;
+
+    private final ZipfSampler customerSampler;
+    private final ZipfSampler productSampler;
+    private final BigDecimal[] prices;
+
+    private DatasetGenerator(CommandLine commandLine) {
+        customerCount = commandLine.getInt("customers", 100_000);
+        productCount = commandLine.getInt("products", 50_000);
+        orderCount = commandLine.getLong("orders", 2_000_000);
+        firstCustomer = commandLine.getInt("first-customer", DEFAULT_FIRST_CUSTOMER);
+        firstProductId = commandLine.getInt("first-product-id", DEFAULT_FIRST_PRODUCT_ID);
+        firstOrderId = commandLine.getInt("first-order-id", 10_000_001);
+        cartShare = commandLine.getDouble("cart-share", 0.2);
+        days = commandLine.getInt("days", 730);
+        end = LocalDate.parse(commandLine.get("end-date", LocalDate.now().toString())).atStartOfDay();
+        seed = commandLine.getLong("seed", 42);
+
+        if (firstCustomer + (long) customerCount > 10_000_000) {
+            throw new IllegalArgumentException("Customer numbers must stay below 10000000 (CUS + 7 digits)");
+        }
+        if (firstOrderId + orderCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Order IDs must fit in INT");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        customerSampler = new ZipfSampler(customerCount, commandLine.getDouble("customer-skew", 0.8),
+                                          random.nextLong());
+        productSampler = new ZipfSampler(productCount, commandLine.getDouble("product-skew", 1.0),
+                                         random.nextLong());
+
+        prices = new BigDecimal[productCount];
+        SplittableRandom priceRandom = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        for (int i = 0; i < productCount; i++) {
+            // Mostly cheap staples, with a long tail of expensive items
+            double price = 20 + Math.exp(priceRandom.nextDouble() * Math.log(50)) * 20;
+            prices[i] = BigDecimal.valueOf(Math.round(price * 100), 2);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLine commandLine = new CommandLine(args);
+        DatasetGenerator generator = new DatasetGenerator(commandLine);
+
+        String out = commandLine.get("out");
+        String url = commandLine.get("url");
+        if ((out == null) == (url == null)) {
+            throw new IllegalArgumentException("Pass either --url=<jdbc url> or --out=<directory>");
+        }
+
+        if (out != null) {
+            try (CsvDatasetSink sink = new CsvDatasetSink(Path.of(out))) {
+                generator.generate(sink);
+            }
+        } else {
+            try (JdbcDatasetSink sink = new JdbcDatasetSink(url, commandLine.get("user", "grocery_user"),
+                                                            commandLine.get("password", ""),
+                                                            commandLine.getInt("batch-size", 5_000))) {
+                sink.checkEmpty(generator.firstProductId, generator.firstOrderId,
+                                customerId(generator.firstCustomer));
+                generator.generate(sink);
+            }
+        }
+    }
+
+    /**
+     * Customer ID of a generated customer number
+     */
+    public static String customerId(int number) {
+        return String.format(Locale.ROOT, "CUS%07d", number);
+    }
+
+    /**
+     * Login email of a generated customer number
+     */
+    public static String customerEmail(int number) {
+        return "customer" + number + "@load.test";
+    }
+
+    private void generate(DatasetSink sink) throws Exception {
+        long started = System.nanoTime();
+
+        // First pass only adds up what open orders reserve, so products are written with it
+        int[] reserved = new int[productCount];
+        generateOrders(new OrderVisitor() {
+            @Override
+            public void order(int orderId, int customer, int product, LocalDateTime date, BigDecimal amount,
+                              int quantity, String status) {
+                if (product >= 0 && holdsReservation(status)) {
+                    reserved[product] += quantity;
+                }
+            }
+
+            @Override
+            public void item(int orderId, int product, int quantity, String status) {
+                if (holdsReservation(status)) {
+                    reserved[product] += quantity;
+                }
+            }
+        });
+
+        String passwordHash = new BCryptPasswordEncoder().encode(CUSTOMER_PASSWORD);
+        SplittableRandom customerRandom = new SplittableRandom(seed + 1);
+        for (int i = 0; i < customerCount; i++) {
+            int number = firstCustomer + i;
+            sink.customer(customerId(number), "Load Customer " + number, customerEmail(number), passwordHash,
+                          (1 + customerRandom.nextInt(999)) + " Market Road, " +
+                          CITIES[customerRandom.nextInt(CITIES.length)],
+                          String.format(Locale.ROOT, "9%09d", number));
+        }
+        report("customers", customerCount, started);
+
+        SplittableRandom productRandom = new SplittableRandom(seed + 2);
+        for (int i = 0; i < productCount; i++) {
+            String name = BRANDS[productRandom.nextInt(BRANDS.length)] + " " +
+                          PRODUCE[productRandom.nextInt(PRODUCE.length)] + " (" +
+                          PACKS[productRandom.nextInt(PACKS.length)] + ") #" + i;
+            int stock = 50 + productRandom.nextInt(5_000);
+            sink.product(firstProductId + i, name, prices[i], stock + reserved[i], reserved[i]);
+        }
+        report("products", productCount, started);
+
+        generateOrders(new OrderVisitor() {
+            @Override
+            public void order(int orderId, int customer, int product, LocalDateTime date, BigDecimal amount,
+                              int quantity, String status) throws Exception {
+                sink.order(orderId, customerId(firstCustomer + customer),
+                           product < 0 ? null : firstProductId + product, date, amount, quantity, status);
+            }
+
+            @Override
+            public void item(int orderId, int product, int quantity, String status) throws Exception {
+                BigDecimal unitPrice = prices[product];
+                sink.orderItem(orderId, firstProductId + product, quantity, unitPrice,
+                               unitPrice.multiply(BigDecimal.valueOf(quantity)));
+            }
+        });
+        sink.finish(firstCustomer + (long) customerCount);
+        report("orders", orderCount, started);
+    }
+
+    /**
+     * Orders in ID order; both passes see exactly the same stream
+     */
+    private void generateOrders(OrderVisitor visitor) throws Exception {
+        SplittableRandom random = new SplittableRandom(seed + 3);
+        long spanMinutes = days * 24L * 60L;
+        int[] items = new int[5];
+        int[] quantities = new int[5];
+
+        for (long i = 0; i < orderCount; i++) {
+            int orderId = (int) (firstOrderId + i);
+            int customer = customerSampler.sample(random);
+            long ageMinutes = random.nextLong(spanMinutes);
+            LocalDateTime date = end.minusMinutes(ageMinutes).withSecond(random.nextInt(60));
+            String status = status(ageMinutes, random);
+
+            if (random.nextDouble() >= cartShare) {
+                int product = productSampler.sample(random);
+                int quantity = quantity(random);
+                visitor.order(orderId, customer, product, date,
+                              prices[product].multiply(BigDecimal.valueOf(quantity)), quantity, status);
+                continue;
+            }
+
+            int itemCount = 2 + random.nextInt(4);
+            BigDecimal amount = BigDecimal.ZERO;
+            int totalQuantity = 0;
+            for (int item = 0; item < itemCount; item++) {
+                items[item] = distinctProduct(random, items, item);
+                quantities[item] = quantity(random);
+                amount = amount.add(prices[items[item]].multiply(BigDecimal.valueOf(quantities[item])));
+                totalQuantity += quantities[item];
+            }
+            visitor.order(orderId, customer, -1, date, amount, totalQuantity, status);
+            for (int item = 0; item < itemCount; item++) {
+                visitor.item(orderId, items[item], quantities[item], status);
+            }
+        }
+    }
+
+    private int distinctProduct(SplittableRandom random, int[] chosen, int count) {
+        while (true) {
+            int product = productSampler.sample(random);
+            boolean duplicate = false;
+            for (int i = 0; i < count && !duplicate; i++) {
+                duplicate = chosen[i] == product;
+            }
+            if (!duplicate || productCount <= count) {
+                return product;
+            }
+        }
+    }
+
+    private static int quantity(SplittableRandom random) {
+        double u = random.nextDouble();
+        return u < 0.6 ? 1 : u < 0.85 ? 2 : u < 0.95 ? 3 : 4 + random.nextInt(7);
+    }
+
+    private static String status(long ageMinutes, SplittableRandom random) {
+        double u = random.nextDouble();
+        if (ageMinutes < 24 * 60) {
+            return u < 0.6 ? "PENDING" : u < 0.95 ? "CONFIRMED" : "CANCELLED";
+        }
+        if (ageMinutes < 7 * 24 * 60) {
+            return u < 0.3 ? "CONFIRMED" : u < 0.6 ? "SHIPPED" : u < 0.95 ? "DELIVERED" : "CANCELLED";
+        }
+        return u < 0.92 ? "DELIVERED" : "CANCELLED";
+    }
+
+    private static boolean holdsReservation(String status) {
+        return !status.equals("DELIVERED") && !status.equals("CANCELLED");
+    }
+
+    private static void report(String table, long rows, long started) {
+        System.out.printf(Locale.ROOT, "%-10s %,12d rows  %8.1f s%n", table, rows,
+                          (System.nanoTime() - started) / 1e9);
+    }
+
+    private interface OrderVisitor {
+        /**
+         * product is -1 for a cart order
+         */
+        void order(int orderId, int customer, int product, LocalDateTime date, BigDecimal amount,
+                   int quantity, String status) throws Exception;
+
+        void item(int orderId, int product, int quantity, String status) throws Exception;
+    }
+}
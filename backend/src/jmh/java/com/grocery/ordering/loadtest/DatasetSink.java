@@ -0,0 +1,41 @@
+package com.grocery.ordering.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Destination of generated rows
+ * Rows arrive table by table in foreign key order: customers, products,
+ * then orders with their cart items.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+interface DatasetSink extends AutoCloseable {
+
+    void customer(String customerId, String fullName, String email, String passwordHash,
+                  String address, String contactNumber) throws Exception;
+
+    void product(int productId, String productName, BigDecimal price, int quantity, int reserved) throws Exception;
+
+    /**
+     * productId is null for a cart order, whose items follow
+     */
+    void order(int orderId, String customerId, Integer productId, LocalDateTime orderDate,
+               BigDecimal orderAmount, int quantityOrdered, String status) throws Exception;
+
+    void orderItem(int orderId, int productId, int quantity, BigDecimal unitPrice,
+                   BigDecimal lineAmount) throws Exception;
+
+    /**
+     * Called once all rows are written; nextCustomerNumber is the first number the application may allocate
+     */
+    void finish(long nextCustomerNumber) throws Exception;
+
+    /**
+     * Narrowed from AutoCloseable so closing a sink cannot throw InterruptedException
+     */
+    @Override
+    void close() throws IOException, SQLException;
+}
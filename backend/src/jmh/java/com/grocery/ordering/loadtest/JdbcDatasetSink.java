@@ -0,0 +1,176 @@
+package com.grocery.ordering.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes generated rows with batched inserts over JDBC
+ * Each table has one prepared statement; once one of them holds batchSize
+ * rows, all pending batches are executed in foreign key order and committed.
+ * On MySQL the URL gets rewriteBatchedStatements=true, so a batch travels as
+ * one multi-row INSERT, and foreign key and unique checks are switched off
+ * for the loading session.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+final class JdbcDatasetSink implements DatasetSink {
+
+    private final Connection connection;
+    private final int batchSize;
+
+    private final PreparedStatement customers;
+    private final PreparedStatement products;
+    private final PreparedStatement orders;
+    private final PreparedStatement orderItems;
+    private final Map<PreparedStatement, Integer> pendingRows = new LinkedHashMap<>();
+
+    JdbcDatasetSink(String url, String username, String password, int batchSize) throws SQLException {
+        boolean mysql = url.startsWith("jdbc:mysql:");
+        this.batchSize = batchSize;
+        if (mysql && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        connection = DriverManager.getConnection(url, username, password);
+        connection.setAutoCommit(false);
+        if (mysql) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                statement.execute("SET UNIQUE_CHECKS = 0");
+            }
+        }
+
+        customers = connection.prepareStatement("INSERT INTO customers (customer_id, full_name, email, password, " +
+                                                "address, contact_number) VALUES (?, ?, ?, ?, ?, ?)");
+        products = connection.prepareStatement("INSERT INTO products (product_id, product_name, price, quantity, " +
+                                               "reserved) VALUES (?, ?, ?, ?, ?)");
+        orders = connection.prepareStatement("INSERT INTO orders (order_id, customer_id, product_id, order_date, " +
+                                             "order_amount, quantity_ordered, status, reservation_applied) " +
+                                             "VALUES (?, ?, ?, ?, ?, ?, ?, TRUE)");
+        orderItems = connection.prepareStatement("INSERT INTO order_items (order_id, product_id, quantity, " +
+                                                 "unit_price, line_amount) VALUES (?, ?, ?, ?, ?)");
+
+        // Flushed in this order, so parents are always written before their children
+        for (PreparedStatement statement : List.of(customers, products, orders, orderItems)) {
+            pendingRows.put(statement, 0);
+        }
+    }
+
+    /**
+     * Fail early when rows from an earlier run would collide with the generated IDs
+     */
+    void checkEmpty(int firstProductId, int firstOrderId, String firstCustomerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT (SELECT COUNT(*) FROM products WHERE product_id >= ?) + " +
+                "(SELECT COUNT(*) FROM orders WHERE order_id >= ?) + " +
+                "(SELECT COUNT(*) FROM customers WHERE customer_id >= ?)")) {
+            statement.setInt(1, firstProductId);
+            statement.setInt(2, firstOrderId);
+            statement.setString(3, firstCustomerId);
+            try (var resultSet = statement.executeQuery()) {
+                resultSet.next();
+                if (resultSet.getLong(1) > 0) {
+                    throw new IllegalStateException("Generated IDs are already in use; load into a fresh database " +
+                                                    "or move --first-product-id, --first-order-id and --first-customer");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void customer(String customerId, String fullName, String email, String passwordHash,
+                         String address, String contactNumber) throws SQLException {
+        customers.setString(1, customerId);
+        customers.setString(2, fullName);
+        customers.setString(3, email);
+        customers.setString(4, passwordHash);
+        customers.setString(5, address);
+        customers.setString(6, contactNumber);
+        add(customers);
+    }
+
+    @Override
+    public void product(int productId, String productName, BigDecimal price, int quantity, int reserved)
+            throws SQLException {
+        products.setInt(1, productId);
+        products.setString(2, productName);
+        products.setBigDecimal(3, price);
+        products.setInt(4, quantity);
+        products.setInt(5, reserved);
+        add(products);
+    }
+
+    @Override
+    public void order(int orderId, String customerId, Integer productId, LocalDateTime orderDate,
+                      BigDecimal orderAmount, int quantityOrdered, String status) throws SQLException {
+        orders.setInt(1, orderId);
+        orders.setString(2, customerId);
+        if (productId == null) {
+            orders.setNull(3, Types.INTEGER);
+        } else {
+            orders.setInt(3, productId);
+        }
+        orders.setTimestamp(4, Timestamp.valueOf(orderDate));
+        orders.setBigDecimal(5, orderAmount);
+        orders.setInt(6, quantityOrdered);
+        orders.setString(7, status);
+        add(orders);
+    }
+
+    @Override
+    public void orderItem(int orderId, int productId, int quantity, BigDecimal unitPrice, BigDecimal lineAmount)
+            throws SQLException {
+        orderItems.setInt(1, orderId);
+        orderItems.setInt(2, productId);
+        orderItems.setInt(3, quantity);
+        orderItems.setBigDecimal(4, unitPrice);
+        orderItems.setBigDecimal(5, lineAmount);
+        add(orderItems);
+    }
+
+    @Override
+    public void finish(long nextCustomerNumber) throws SQLException {
+        flush();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE id_sequences SET next_value = GREATEST(next_value, ?) WHERE sequence_name = 'customer'")) {
+            statement.setLong(1, nextCustomerNumber);
+            statement.executeUpdate();
+        }
+        connection.commit();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    private void add(PreparedStatement statement) throws SQLException {
+        statement.addBatch();
+        if (pendingRows.merge(statement, 1, Integer::sum) >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() throws SQLException {
+        boolean executed = false;
+        for (Map.Entry<PreparedStatement, Integer> entry : pendingRows.entrySet()) {
+            if (entry.getValue() > 0) {
+                entry.getKey().executeBatch();
+                entry.setValue(0);
+                executed = true;
+            }
+        }
+        if (executed) {
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.grocery.ordering.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load driver replaying mixed shop traffic against the REST API
+ * Each of --users simulated users signs in as a generated customer (chosen
+ * with the same skew as the dataset) and then loops over operations drawn
+ * from --mix, waiting --think-ms between them:
+ *
+ * - browse: GET /api/products/{id}
+ * - search: GET /api/products/search with a product word
+ * - checkout: POST /api/orders/checkout with one to three products
+ * - login: drops the session and signs in again as another customer
+ * - admin: order statistics or the first page of PENDING orders, as admin
+ *
+ * Latencies are recorded after --warmup-s and reported per operation as
+ * throughput and percentiles; failures (non-2xx/304 or I/O errors) are
+ * counted separately and not recorded. Run it against a backend loaded by
+ * DatasetGenerator with the same --customers, --products and seed options.
+ *
+ * ./mvnw -Pperf test-compile exec:java -Dexec.mainClass=com.grocery.ordering.loadtest.LoadDriver
+ *        -Dexec.args="--base-url=http://localhost:8080 --users=100 --duration-s=120"
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public final class LoadDriver {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final URI baseUri;
+    private final Duration timeout;
+    private final int thinkMs;
+    private final int firstCustomer;
+    private final int firstProductId;
+    private final String adminUsername;
+    private final String adminPassword;
+    private final ZipfSampler customerSampler;
+    private final ZipfSampler productSampler;
+    private final String[] operations;
+    private final double[] cumulativeWeights;
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+
+    private volatile long recordFrom;
+    private volatile long stopAt;
+
+    private LoadDriver(CommandLine commandLine) {
+        baseUri = URI.create(commandLine.get("base-url", "http://localhost:8080"));
+        timeout = Duration.ofMillis(commandLine.getInt("timeout-ms", 10_000));
+        thinkMs = commandLine.getInt("think-ms", 0);
+        int customerCount = commandLine.getInt("customers", 100_000);
+        firstCustomer = commandLine.getInt("first-customer", DatasetGenerator.DEFAULT_FIRST_CUSTOMER);
+        int productCount = commandLine.getInt("products", 50_000);
+        firstProductId = commandLine.getInt("first-product-id", DatasetGenerator.DEFAULT_FIRST_PRODUCT_ID);
+        adminUsername = commandLine.get("admin-username", "admin");
+        adminPassword = commandLine.get("admin-password", "admin123");
+
+        long seed = commandLine.getLong("seed", 42);
+        customerSampler = new ZipfSampler(customerCount, commandLine.getDouble("customer-skew", 0.8), seed);
+        productSampler = new ZipfSampler(productCount, commandLine.getDouble("product-skew", 1.0), seed + 1);
+
+        String[] mix = commandLine.get("mix", "browse:35,search:30,checkout:20,login:5,admin:10").split(",");
+        operations = new String[mix.length];
+        cumulativeWeights = new double[mix.length];
+        double total = 0;
+        for (int i = 0; i < mix.length; i++) {
+            String[] entry = mix[i].split(":");
+            operations[i] = entry[0].trim();
+            total += Double.parseDouble(entry[1].trim());
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new OperationStats());
+        }
+        for (int i = 0; i < mix.length; i++) {
+            cumulativeWeights[i] /= total;
+        }
+        stats.putIfAbsent("login", new OperationStats());
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLine commandLine = new CommandLine(args);
+        LoadDriver driver = new LoadDriver(commandLine);
+        int users = commandLine.getInt("users", 50);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(commandLine.getInt("warmup-s", 10));
+        long durationNanos = TimeUnit.SECONDS.toNanos(commandLine.getInt("duration-s", 60));
+        long seed = commandLine.getLong("seed", 42);
+
+        long start = System.nanoTime();
+        driver.recordFrom = start + warmupNanos;
+        driver.stopAt = driver.recordFrom + durationNanos;
+
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            SplittableRandom random = new SplittableRandom(seed * 31 + i);
+            executor.execute(() -> driver.runUser(random));
+        }
+        executor.shutdown();
+        executor.awaitTermination(warmupNanos + durationNanos + TimeUnit.MINUTES.toNanos(2), TimeUnit.NANOSECONDS);
+
+        driver.report(users, durationNanos);
+    }
+
+    private void runUser(SplittableRandom random) {
+        CookieManager customerCookies = new CookieManager();
+        HttpClient customer = newClient(customerCookies);
+        HttpClient admin = null;
+        login(customer, customerEmail(random), DatasetGenerator.CUSTOMER_PASSWORD);
+
+        while (System.nanoTime() < stopAt) {
+            String operation = nextOperation(random);
+            switch (operation) {
+                case "browse" -> call(operation, customer, get("/api/products/" + productId(random)));
+                case "search" -> call(operation, customer, get("/api/products/search?name=" +
+                    URLEncoder.encode(DatasetGenerator.PRODUCE[random.nextInt(DatasetGenerator.PRODUCE.length)],
+                                      StandardCharsets.UTF_8)));
+                case "checkout" -> call(operation, customer, post("/api/orders/checkout", checkoutBody(random)));
+                case "login" -> {
+                    customerCookies.getCookieStore().removeAll();
+                    login(customer, customerEmail(random), DatasetGenerator.CUSTOMER_PASSWORD);
+                }
+                case "admin" -> {
+                    if (admin == null) {
+                        admin = newClient(new CookieManager());
+                        login(admin, adminUsername, adminPassword);
+                    }
+                    call(operation, admin, random.nextBoolean()
+                        ? get("/api/orders/statistics")
+                        : get("/api/orders/status/PENDING?limit=50"));
+                }
+                default -> throw new IllegalArgumentException("Unknown operation in --mix: " + operation);
+            }
+            if (thinkMs > 0) {
+                try {
+                    Thread.sleep(thinkMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void login(HttpClient client, String username, String password) {
+        call("login", client, post("/api/auth/login", "{\"username\":\"" + username + "\",\"password\":\"" +
+                                                      password + "\"}"));
+    }
+
+    private void call(String operation, HttpClient client, HttpRequest request) {
+        OperationStats operationStats = stats.get(operation);
+        long started = System.nanoTime();
+        boolean ok;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = (status >= 200 && status < 300) || status == 304;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long finished = System.nanoTime();
+        if (started < recordFrom || finished > stopAt) {
+            return;
+        }
+        if (ok) {
+            operationStats.latencies.recordValue(
+                Math.min(TimeUnit.NANOSECONDS.toMicros(finished - started), MAX_LATENCY_MICROS));
+        } else {
+            operationStats.failures.incrementAndGet();
+        }
+    }
+
+    private String checkoutBody(SplittableRandom random) {
+        int itemCount = 1 + random.nextInt(3);
+        List<String> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add("{\"productId\":" + productId(random) + ",\"quantity\":" + (1 + random.nextInt(2)) + "}");
+        }
+        return "{\"items\":[" + String.join(",", items) + "]}";
+    }
+
+    private String nextOperation(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < operations.length; i++) {
+            if (u < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private int productId(SplittableRandom random) {
+        return firstProductId + productSampler.sample(random);
+    }
+
+    private String customerEmail(SplittableRandom random) {
+        return DatasetGenerator.customerEmail(firstCustomer + customerSampler.sample(random));
+    }
+
+    private HttpClient newClient(CookieManager cookies) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .cookieHandler(cookies)
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private void report(int users, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        long totalCount = 0;
+        System.out.printf(Locale.ROOT, "%d users, %.0f s measured%n", users, seconds);
+        System.out.printf(Locale.ROOT, "%-10s %10s %9s %8s %9s %9s %9s %9s %9s%n",
+                          "operation", "ok", "failed", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            long count = latencies.getTotalCount();
+            totalCount += count;
+            System.out.printf(Locale.ROOT, "%-10s %10d %9d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                              entry.getKey(), count, entry.getValue().failures.get(), count / seconds,
+                              millis(latencies, 50), millis(latencies, 90), millis(latencies, 99),
+                              millis(latencies, 99.9), latencies.getMaxValue() / 1000.0);
+        }
+        System.out.printf(Locale.ROOT, "%-10s %10d %9s %8.1f%n", "total", totalCount, "", totalCount / seconds);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class OperationStats {
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final AtomicLong failures = new AtomicLong();
+    }
+}
@@ -0,0 +1,59 @@
+package com.grocery.ordering.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf-distributed choice of one of n items
+ * Rank k is drawn with probability proportional to 1 / k^exponent. Ranks are
+ * shuffled onto item indexes once, so the popular items are spread over the
+ * ID range instead of being the lowest IDs.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+    private final int[] itemByRank;
+
+    ZipfSampler(int n, double exponent, long seed) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+
+        itemByRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            itemByRank[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = itemByRank[i];
+            itemByRank[i] = itemByRank[j];
+            itemByRank[j] = swap;
+        }
+    }
+
+    /**
+     * Index of the chosen item, 0 <= index < n
+     */
+    int sample(SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return itemByRank[low];
+    }
+}
@@ -0,0 +1,101 @@
+package com.grocery.ordering.repository;
+
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.model.Product;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping cost of product and order detail rows, isolated from the database
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    @Param("1000")
+    public int rows;
+
+    private final ProductRepository.ProductRowMapper productRowMapper = new ProductRepository.ProductRowMapper();
+    private final OrderRepository.OrderDetailRowMapper orderDetailRowMapper = new OrderRepository.OrderDetailRowMapper();
+
+    private SimpleResultSet productRows;
+    private SimpleResultSet orderDetailRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        productRows = new SimpleResultSet();
+        productRows.setAutoClose(false);
+        productRows.addColumn("product_id", Types.INTEGER, 10, 0);
+        productRows.addColumn("product_name", Types.VARCHAR, 100, 0);
+        productRows.addColumn("price", Types.DECIMAL, 10, 2);
+        productRows.addColumn("quantity", Types.INTEGER, 10, 0);
+        productRows.addColumn("reserved", Types.INTEGER, 10, 0);
+        productRows.addColumn("customer_id", Types.VARCHAR, 6, 0);
+        productRows.addColumn("created_at", Types.TIMESTAMP, 0, 0);
+        productRows.addColumn("updated_at", Types.TIMESTAMP, 0, 0);
+
+        orderDetailRows = new SimpleResultSet();
+        orderDetailRows.setAutoClose(false);
+        orderDetailRows.addColumn("order_id", Types.INTEGER, 10, 0);
+        orderDetailRows.addColumn("customer_id", Types.VARCHAR, 6, 0);
+        orderDetailRows.addColumn("product_id", Types.INTEGER, 10, 0);
+        orderDetailRows.addColumn("order_date", Types.TIMESTAMP, 0, 0);
+        orderDetailRows.addColumn("order_amount", Types.DECIMAL, 10, 2);
+        orderDetailRows.addColumn("quantity_ordered", Types.INTEGER, 10, 0);
+        orderDetailRows.addColumn("status", Types.VARCHAR, 10, 0);
+        orderDetailRows.addColumn("customer_name", Types.VARCHAR, 100, 0);
+        orderDetailRows.addColumn("product_name", Types.VARCHAR, 100, 0);
+
+        for (int i = 0; i < rows; i++) {
+            productRows.addRow(i, "Product " + i, BigDecimal.valueOf(100 + i, 2), 100, 5, null, now, now);
+            orderDetailRows.addRow(i, "C00001", i, now, BigDecimal.valueOf(250 + i, 2), 2, "PENDING",
+                                   "Customer 1", "Product " + i);
+        }
+    }
+
+    @Benchmark
+    public void mapProducts(Blackhole blackhole) throws SQLException {
+        productRows.beforeFirst();
+        int rowNum = 0;
+        while (productRows.next()) {
+            Product product = productRowMapper.mapRow(productRows, rowNum++);
+            blackhole.consume(product);
+        }
+    }
+
+    @Benchmark
+    public void mapOrderDetails(Blackhole blackhole) throws SQLException {
+        orderDetailRows.beforeFirst();
+        int rowNum = 0;
+        while (orderDetailRows.next()) {
+            Order order = orderDetailRowMapper.mapRow(orderDetailRows, rowNum++);
+            blackhole.consume(order);
+        }
+    }
+}
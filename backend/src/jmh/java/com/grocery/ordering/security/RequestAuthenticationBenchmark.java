@@ -0,0 +1,92 @@
+package com.grocery.ordering.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost of a customer reading one of their orders
+ * sessionAttributeChecks is the former path: Spring Security looks for a
+ * stored context, finds none and falls back to an anonymous token, then the
+ * controller checks the session attributes itself. resolvedPrincipal builds
+ * the security context once from the session and checks the resolved
+ * principal. One request is reused so that only authentication is measured.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestAuthenticationBenchmark {
+
+    private static final String CUSTOMER_ID = "CUS0000042";
+    private static final List<GrantedAuthority> ANONYMOUS_AUTHORITIES =
+        AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS");
+
+    private final HttpSessionSecurityContextRepository httpSessionRepository = new HttpSessionSecurityContextRepository();
+    private final SessionSecurityContextRepository sessionRepository = new SessionSecurityContextRepository();
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("userType", "CUSTOMER");
+        session.setAttribute("authenticated", true);
+        session.setAttribute("customerId", CUSTOMER_ID);
+        request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.setSession(session);
+    }
+
+    @Benchmark
+    public boolean sessionAttributeChecks() {
+        request.clearAttributes();
+        SecurityContext context = httpSessionRepository.loadDeferredContext(request).get();
+        if (context.getAuthentication() == null) {
+            context.setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser", ANONYMOUS_AUTHORITIES));
+        }
+        if (!isAuthenticated(request)) {
+            return false;
+        }
+        HttpSession session = request.getSession(false);
+        String userType = (String) session.getAttribute("userType");
+        if ("CUSTOMER".equals(userType)) {
+            return CUSTOMER_ID.equals(session.getAttribute("customerId"));
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean resolvedPrincipal() {
+        request.clearAttributes();
+        SecurityContext context = sessionRepository.loadDeferredContext(request).get();
+        UserPrincipal user = (UserPrincipal) context.getAuthentication().getPrincipal();
+        return user.canAccessCustomer(CUSTOMER_ID);
+    }
+
+    private static boolean isAuthenticated(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null && Boolean.TRUE.equals(session.getAttribute("authenticated"));
+    }
+}
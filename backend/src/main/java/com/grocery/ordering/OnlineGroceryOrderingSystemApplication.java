@@ -4,8 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -16,6 +15,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * @version 1.0.0
  */
 @SpringBootApplication
+@EnableScheduling
 public class OnlineGroceryOrderingSystemApplication extends SpringBootServletInitializer {
 
     public static void main(String[] args) {
@@ -28,14 +28,6 @@ public class OnlineGroceryOrderingSystemApplication extends SpringBootServletIni
         System.out.println("=================================================");
     }
 
-    /**
-     * Password encoder bean for secure password hashing
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     /**
      * CORS configuration for cross-origin requests
      */
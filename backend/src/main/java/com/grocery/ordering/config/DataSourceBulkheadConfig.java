@@ -0,0 +1,48 @@
+package com.grocery.ordering.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link BulkheadDataSource}
+ * Enabled with app.datasource.bulkhead.enabled=true (on by default in the
+ * virtual-threads profile). Unless app.datasource.bulkhead.permits is set,
+ * the bulkhead admits as many callers as the Hikari pool has connections.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.bulkhead.enabled", havingValue = "true")
+public class DataSourceBulkheadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceBulkheadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor dataSourceBulkheadPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                long poolTimeout = bean instanceof HikariDataSource hikari ? hikari.getConnectionTimeout() : 30000;
+                int permits = environment.getProperty("app.datasource.bulkhead.permits", Integer.class, poolSize);
+                long timeout = environment.getProperty("app.datasource.bulkhead.acquire-timeout-ms", Long.class,
+                                                       poolTimeout);
+
+                logger.info("Database bulkhead on '{}' admits {} concurrent connections", beanName, permits);
+                return new BulkheadDataSource(dataSource, permits, timeout);
+            }
+        };
+    }
+}
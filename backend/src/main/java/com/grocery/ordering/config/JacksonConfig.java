@@ -0,0 +1,65 @@
+package com.grocery.ordering.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.grocery.ordering.model.Customer;
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JSON serialization settings
+ * Blackbird replaces Jackson's reflective getter calls with generated
+ * lambdas. Orders, products and customers carry the {@link #FIELDS_FILTER}
+ * property filter, which writes every property unless a request narrows it
+ * with fields= (see FieldProjectionAdvice). On virtual threads the
+ * thread-local buffer recycler never gets reused, so output buffers come
+ * from a shared pool instead.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Property filter ID of the types a fields= parameter can project
+     */
+    public static final String FIELDS_FILTER = "fields";
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer jsonSerializationCustomizer() {
+        return builder -> {
+            builder.modulesToInstall(modules -> modules.add(new BlackbirdModule()));
+            builder.mixIn(Order.class, FieldProjection.class);
+            builder.mixIn(Product.class, FieldProjection.class);
+            builder.mixIn(Customer.class, FieldProjection.class);
+            builder.filters(allFields());
+            if (virtualThreads) {
+                builder.factory(JsonFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+                    .build());
+            }
+        };
+    }
+
+    /**
+     * Filters writing every property, used when a request has no fields= parameter
+     */
+    public static SimpleFilterProvider allFields() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    @JsonFilter(FIELDS_FILTER)
+    private interface FieldProjection {
+    }
+}
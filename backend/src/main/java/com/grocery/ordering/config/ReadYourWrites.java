@@ -0,0 +1,67 @@
+package com.grocery.ordering.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grocery.ordering.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Customers whose own reads stay on the primary after they placed an order
+ * A customer who just ordered is kept off the replicas for the replica lag
+ * limit plus one check interval, so the order shows up in their order list
+ * right away even on a replica that has not applied it yet. Does nothing
+ * unless read replicas are enabled.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class ReadYourWrites {
+
+    @Value("${app.datasource.replicas.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.datasource.replicas.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${app.datasource.replicas.check-interval-ms:1000}")
+    private long checkIntervalMs;
+
+    private Cache<String, Boolean> recentWriters;
+
+    @PostConstruct
+    public void init() {
+        recentWriters = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMillis(maxLagMs + checkIntervalMs))
+            .build();
+    }
+
+    /**
+     * Keep a customer's reads on the primary for the read-your-writes window
+     */
+    public void recordWrite(String customerId) {
+        if (enabled && customerId != null) {
+            recentWriters.put(customerId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Whether the customer signed in to the current request wrote within the window
+     */
+    public boolean isCurrentUserSticky() {
+        if (!enabled) {
+            return false;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+            && authentication.getPrincipal() instanceof UserPrincipal principal
+            && principal.isCustomer()
+            && recentWriters.getIfPresent(principal.getCustomerId()) != null;
+    }
+}
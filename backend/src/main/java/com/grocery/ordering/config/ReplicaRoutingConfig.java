@@ -0,0 +1,167 @@
+package com.grocery.ordering.config;
+
+import com.grocery.ordering.config.ReplicaRoutingDataSource.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to read replicas
+ * Enabled with app.datasource.replicas.enabled=true. The application
+ * DataSource becomes the primary of a {@link ReplicaRoutingDataSource} behind
+ * a LazyConnectionDataSourceProxy; each URL in app.datasource.replicas.urls
+ * gets its own read-only Hikari pool with the primary's credentials. Replicas
+ * are checked every app.datasource.replicas.check-interval-ms and only serve
+ * reads while reachable and within app.datasource.replicas.max-lag-ms.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ReplicaRoutingDataSource routing;
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                HikariDataSource primary = primaryPool(bean);
+                if (primary == null) {
+                    return bean;
+                }
+
+                String[] urls = environment.getProperty("app.datasource.replicas.urls", String[].class, new String[0]);
+                int poolSize = environment.getProperty("app.datasource.replicas.maximum-pool-size", Integer.class,
+                                                       primary.getMaximumPoolSize());
+                long connectionTimeout = environment.getProperty("app.datasource.replicas.connection-timeout-ms",
+                                                                 Long.class, 1000L);
+                List<Replica> replicas = new ArrayList<>();
+                for (String url : urls) {
+                    if (url.isBlank()) {
+                        continue;
+                    }
+                    HikariDataSource replica = new HikariDataSource();
+                    replica.setPoolName("replica-" + (replicas.size() + 1));
+                    replica.setJdbcUrl(url.trim());
+                    replica.setUsername(primary.getUsername());
+                    replica.setPassword(primary.getPassword());
+                    if (primary.getDriverClassName() != null) {
+                        replica.setDriverClassName(primary.getDriverClassName());
+                    }
+                    replica.setMaximumPoolSize(poolSize);
+                    replica.setMinimumIdle(Math.min(primary.getMinimumIdle(), poolSize));
+                    replica.setConnectionTimeout(connectionTimeout);
+                    replica.setReadOnly(true);
+                    replicas.add(new Replica(replica.getPoolName(), replica));
+                }
+                if (replicas.isEmpty()) {
+                    logger.warn("Read replicas are enabled but app.datasource.replicas.urls is empty");
+                    return bean;
+                }
+
+                String lagQuery = environment.getProperty("app.datasource.replicas.lag-query", "SHOW REPLICA STATUS");
+                long maxLagMs = environment.getProperty("app.datasource.replicas.max-lag-ms", Long.class, 5000L);
+                logger.info("Read-only transactions on '{}' are routed to {} replicas", beanName, replicas.size());
+                return new LazyConnectionDataSourceProxy(
+                    new ReplicaRoutingDataSource((DataSource) bean, replicas, lagQuery, maxLagMs));
+            }
+        };
+    }
+
+    /**
+     * Hikari pool behind an application DataSource not routed yet, e.g. inside a bulkhead
+     */
+    private static HikariDataSource primaryPool(Object bean) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return null;
+        }
+        try {
+            if (dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+                || !dataSource.isWrapperFor(HikariDataSource.class)) {
+                return null;
+            }
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws SQLException {
+        if (!dataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+            return;
+        }
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        routing.setReadYourWrites(readYourWrites::isCurrentUserSticky);
+
+        FunctionCounter.builder("datasource.routing.connections", routing,
+                                ReplicaRoutingDataSource::getPrimaryConnections)
+            .tag("target", "primary")
+            .register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.connections", routing,
+                                ReplicaRoutingDataSource::getReplicaConnections)
+            .tag("target", "replica")
+            .register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.fallbacks", routing, ReplicaRoutingDataSource::getFallbacks)
+            .description("Read-only connections taken from the primary because no replica was healthy")
+            .register(meterRegistry);
+        for (Replica replica : routing.getReplicas()) {
+            replica.getDataSource().setMetricRegistry(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                .tag("replica", replica.getName())
+                .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", replica, Replica::getLagMs)
+                .tag("replica", replica.getName())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Take replicas in and out of service by reachability and lag
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.check-interval-ms:1000}")
+    public void checkReplicas() {
+        if (routing != null) {
+            routing.checkReplicas();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (routing != null) {
+            routing.close();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.grocery.ordering.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * DataSource sending read-only transactions to a healthy replica
+ * A connection goes to a replica when it is taken inside an actual
+ * read-only transaction, the current customer has not written within the
+ * read-your-writes window and the caller is not in an {@link #onPrimary}
+ * block; everything else goes to the primary. Replicas are taken round-robin
+ * among those whose last check found them reachable and no further behind
+ * than the lag limit. A replica that fails to hand out a connection is marked
+ * down and the connection is taken from the primary instead.
+ *
+ * The read-only flag is only known once the transaction has begun, so this
+ * DataSource must sit behind a LazyConnectionDataSourceProxy, which takes the
+ * physical connection at the first statement.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> primaryPinned = new ThreadLocal<>();
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private volatile BooleanSupplier readYourWrites = () -> false;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, String lagQuery, long maxLagMs) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLagMs = maxLagMs;
+    }
+
+    /**
+     * Run an action whose reads must see the primary, e.g. filling a cache
+     * Only applies if the surrounding transaction has not taken its connection yet.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = primaryPinned.get();
+        primaryPinned.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                primaryPinned.remove();
+            }
+        }
+    }
+
+    /**
+     * Whether reads of the current request must stay on the primary
+     */
+    public void setReadYourWrites(BooleanSupplier readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routesToReplica()) {
+            primaryConnections.incrementAndGet();
+            return primary.getConnection();
+        }
+        Replica replica = nextHealthyReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaConnections.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        fallbacks.incrementAndGet();
+        primaryConnections.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryConnections.incrementAndGet();
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * Check every replica's reachability and replication lag
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.check(lagQuery, maxLagMs);
+        }
+    }
+
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.get();
+    }
+
+    public long getReplicaConnections() {
+        return replicaConnections.get();
+    }
+
+    /**
+     * Read-only connections taken from the primary because no replica was healthy
+     */
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    private boolean routesToReplica() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+            && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && primaryPinned.get() == null
+            && !readYourWrites.getAsBoolean();
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Connection pool of one replica with the result of its last check
+     */
+    public static class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() { return name; }
+        public HikariDataSource getDataSource() { return dataSource; }
+        public boolean isHealthy() { return healthy; }
+
+        /**
+         * Replication lag found by the last check, -1 if unknown
+         */
+        public long getLagMs() { return lagMs; }
+
+        void check(String lagQuery, long maxLagMs) {
+            try (Connection connection = dataSource.getConnection()) {
+                long lag = lagQuery == null ? 0 : lagMillis(connection, lagQuery);
+                lagMs = lag;
+                if (lag < 0) {
+                    setHealthy(false, "replication is not running");
+                } else if (lag > maxLagMs) {
+                    setHealthy(false, "lagging " + lag + " ms behind the primary");
+                } else {
+                    setHealthy(true, null);
+                }
+            } catch (SQLException e) {
+                lagMs = -1;
+                setHealthy(false, e.getMessage());
+            }
+        }
+
+        void markDown(String reason) {
+            setHealthy(false, reason);
+        }
+
+        private void setHealthy(boolean healthy, String reason) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    logger.info("Replica {} is back in service", name);
+                } else {
+                    logger.warn("Replica {} taken out of service: {}", name, reason);
+                }
+            }
+            this.healthy = healthy;
+        }
+
+        /**
+         * Lag reported by the lag query in milliseconds, -1 if it reports none
+         * The query returns seconds, either in a Seconds_Behind_Source (or
+         * _Master) column as SHOW REPLICA STATUS does, or in its first column.
+         */
+        private static long lagMillis(Connection connection, String lagQuery) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) {
+                    return -1;
+                }
+                long seconds = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+                return resultSet.wasNull() ? -1 : seconds * 1000;
+            }
+        }
+
+        private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                for (String column : LAG_COLUMNS) {
+                    if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                        return i;
+                    }
+                }
+            }
+            return 1;
+        }
+    }
+}
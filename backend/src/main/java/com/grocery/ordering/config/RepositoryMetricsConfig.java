@@ -0,0 +1,117 @@
+package com.grocery.ordering.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers around every public method of the @Repository beans
+ * Recorded as repository.invocations{repository, method, state}; histogram
+ * buckets come from the management.metrics.distribution properties. The
+ * timers of a method are looked up once, so a call only adds two clock reads
+ * and a lock-free record.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public static RepositoryTimingPostProcessor repositoryTimingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryTimingPostProcessor(meterRegistry);
+    }
+
+    /**
+     * Adds the timing advice to @Repository beans, next to their exception translation
+     */
+    static class RepositoryTimingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        private static final long serialVersionUID = 1L;
+
+        RepositoryTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+            setProxyTargetClass(true);
+            this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Repository.class, true),
+                                                      new RepositoryTimingInterceptor(meterRegistry));
+        }
+    }
+
+    static class RepositoryTimingInterceptor implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+        RepositoryTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MethodTimers methodTimers = timersFor(invocation.getMethod());
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                methodTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable e) {
+                methodTimers.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        private MethodTimers timersFor(Method method) {
+            MethodTimers methodTimers = timers.get(method);
+            if (methodTimers == null) {
+                methodTimers = timers.computeIfAbsent(method, m -> new MethodTimers(meterRegistry.getObject(), m));
+            }
+            return methodTimers;
+        }
+    }
+
+    /**
+     * Timers of one method; the error timer is only registered once a call fails
+     */
+    private static class MethodTimers {
+        private final MeterRegistry registry;
+        private final Method method;
+        private final Timer success;
+        private volatile Timer error;
+
+        MethodTimers(MeterRegistry registry, Method method) {
+            this.registry = registry;
+            this.method = method;
+            this.success = timer("SUCCESS");
+        }
+
+        Timer error() {
+            Timer timer = error;
+            if (timer == null) {
+                timer = timer("ERROR");
+                error = timer;
+            }
+            return timer;
+        }
+
+        private Timer timer(String state) {
+            return Timer.builder("repository.invocations")
+                .description("Calls of repository methods")
+                .tag("repository", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("state", state)
+                .register(registry);
+        }
+    }
+}
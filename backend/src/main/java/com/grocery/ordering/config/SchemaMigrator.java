@@ -0,0 +1,259 @@
+package com.grocery.ordering.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations
+ * Applies the scripts in db/migration (V{version}__{description}.sql) newer
+ * than the highest version recorded in schema_version, in version order, and
+ * records each one. Runs before any JdbcTemplate is handed out (see
+ * {@link SchemaMigratorDetector}).
+ *
+ * A database without schema_version is assumed to be at
+ * app.database.migrations.baseline-version (1, the original init.sql).
+ * Scripts may use DELIMITER lines like the mysql client does.
+ *
+ * MySQL commits every DDL statement on its own, so a script cannot be rolled
+ * back as a whole. Its schema_version row is therefore written with
+ * success = FALSE before the first statement and only marked successful
+ * after the last one. A script that fails partway leaves that row behind,
+ * and startup is refused until an operator has repaired the schema and
+ * either deleted the row (to run the script again) or set success = TRUE.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String LOCK_NAME = "grocery_schema_migration";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.database.migrations.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.database.migrations.location:classpath*:db/migration}")
+    private String location;
+
+    @Value("${app.database.migrations.baseline-version:1}")
+    private int baselineVersion;
+
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        if (!enabled) {
+            logger.info("Schema migrations are disabled");
+            return;
+        }
+
+        List<Migration> migrations = findMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            // Every statement, and the MySQL advisory lock, must use this one connection
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+
+            if (mysql) {
+                Integer locked = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, 300)", Integer.class, LOCK_NAME);
+                if (locked == null || locked != 1) {
+                    throw new RuntimeException("Timed out waiting for another node to finish schema migrations");
+                }
+            }
+            try {
+                migrate(jdbcTemplate, migrations);
+            } finally {
+                if (mysql) {
+                    jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+                }
+            }
+        }
+    }
+
+    private void migrate(JdbcTemplate jdbcTemplate, List<Migration> migrations) {
+        Map<Integer, Long> applied = appliedVersions(jdbcTemplate);
+        refuseFailedMigrations(jdbcTemplate);
+        int current = applied.keySet().stream().max(Integer::compare).orElse(0);
+
+        for (Migration migration : migrations) {
+            if (migration.version <= current) {
+                Long checksum = applied.get(migration.version);
+                if (checksum != null && checksum != migration.checksum) {
+                    logger.warn("Migration V{} ({}) was changed after it was applied", migration.version,
+                                migration.description);
+                }
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            logger.info("Applying schema migration V{} ({})", migration.version, migration.description);
+            // Recorded as failed until the last statement is through, so a partial run is never forgotten
+            jdbcTemplate.update("INSERT INTO schema_version (version, description, checksum, success) " +
+                                "VALUES (?, ?, ?, FALSE)", migration.version, migration.description,
+                                migration.checksum);
+            for (String statement : migration.statements) {
+                try {
+                    jdbcTemplate.execute(statement);
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Schema migration V" + migration.version + " failed at: " +
+                                               statement + "; the schema may be partly migrated, see " +
+                                               "schema_version", e);
+                }
+            }
+            jdbcTemplate.update("UPDATE schema_version SET success = TRUE, execution_ms = ? WHERE version = ?",
+                                (int) (System.currentTimeMillis() - start), migration.version);
+            current = migration.version;
+        }
+        logger.info("Database schema is at version {}", current);
+    }
+
+    /**
+     * Refuse to migrate past a script an earlier start did not finish
+     */
+    private void refuseFailedMigrations(JdbcTemplate jdbcTemplate) {
+        List<String> failed = jdbcTemplate.queryForList(
+            "SELECT CONCAT('V', version, ' (', description, ')') FROM schema_version WHERE success = FALSE " +
+            "ORDER BY version", String.class);
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Schema migration " + String.join(", ", failed) + " did not complete " +
+                                            "on an earlier start. Repair the schema by hand, then delete its " +
+                                            "schema_version row to run it again, or set success = TRUE if it is " +
+                                            "fully applied.");
+        }
+    }
+
+    /**
+     * Applied versions with their checksums (null for baselined versions)
+     */
+    private Map<Integer, Long> appliedVersions(JdbcTemplate jdbcTemplate) {
+        Map<Integer, Long> applied = new HashMap<>();
+        try {
+            jdbcTemplate.query("SELECT version, checksum FROM schema_version", rs -> {
+                int version = rs.getInt("version");
+                long checksum = rs.getLong("checksum");
+                applied.put(version, rs.wasNull() ? null : checksum);
+            });
+        } catch (BadSqlGrammarException e) {
+            logger.info("No schema_version table, baselining the database at version {}", baselineVersion);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                                 "version INT PRIMARY KEY, " +
+                                 "description VARCHAR(200) NOT NULL, " +
+                                 "checksum BIGINT, " +
+                                 "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                 "execution_ms INT NOT NULL DEFAULT 0, " +
+                                 "success BOOLEAN NOT NULL DEFAULT TRUE)");
+            jdbcTemplate.update("INSERT INTO schema_version (version, description) VALUES (?, ?)",
+                                baselineVersion, "baseline");
+            applied.put(baselineVersion, null);
+        }
+        addSuccessColumn(jdbcTemplate);
+        return applied;
+    }
+
+    /**
+     * Add the success column to a schema_version table created before it existed
+     */
+    private static void addSuccessColumn(JdbcTemplate jdbcTemplate) {
+        try {
+            jdbcTemplate.queryForList("SELECT success FROM schema_version WHERE version < 0");
+        } catch (BadSqlGrammarException e) {
+            jdbcTemplate.execute("ALTER TABLE schema_version ADD COLUMN success BOOLEAN NOT NULL DEFAULT TRUE");
+        }
+    }
+
+    private List<Migration> findMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+        for (Resource resource : resources) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            String script;
+            try (InputStream in = resource.getInputStream()) {
+                script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                                         crc.getValue(), splitStatements(script)));
+        }
+        migrations.sort(Comparator.comparingInt(migration -> migration.version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new RuntimeException("Duplicate schema migration version V" + migrations.get(i).version);
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Split a script into statements, honouring DELIMITER lines and skipping comment lines
+     */
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String delimiter = ";";
+
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.toUpperCase().startsWith("DELIMITER ")) {
+                delimiter = trimmed.substring("DELIMITER ".length()).trim();
+                continue;
+            }
+            if (current.length() == 0 && (trimmed.isEmpty() || trimmed.startsWith("--"))) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(delimiter)) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - delimiter.length()).trim());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final long checksum;
+        private final List<String> statements;
+
+        Migration(int version, String description, long checksum, List<String> statements) {
+            this.version = version;
+            this.description = description;
+            this.checksum = checksum;
+            this.statements = statements;
+        }
+    }
+}
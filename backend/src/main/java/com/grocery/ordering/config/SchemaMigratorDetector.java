@@ -0,0 +1,20 @@
+package com.grocery.ordering.config;
+
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+
+import java.util.Set;
+
+/**
+ * Marks {@link SchemaMigrator} as a database initializer
+ * Spring Boot then makes every JdbcTemplate wait for the migrations.
+ * Registered in META-INF/spring.factories.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class SchemaMigratorDetector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+
+    @Override
+    protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+        return Set.of(SchemaMigrator.class);
+    }
+}
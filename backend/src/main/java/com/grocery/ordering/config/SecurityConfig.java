@@ -1,12 +1,23 @@
 package com.grocery.ordering.config;
 
+import com.grocery.ordering.logging.CustomerDebugTrace;
+import com.grocery.ordering.logging.CustomerDebugTraceFilter;
+import com.grocery.ordering.security.MetricsScrapeTokenFilter;
+import com.grocery.ordering.security.SessionSecurityContextRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.AccessDeniedHandlerImpl;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,48 +36,86 @@ import java.util.List;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private CustomerDebugTrace customerDebugTrace;
+
+    @Value("${app.metrics.scrape-token:}")
+    private String metricsScrapeToken;
+
     /**
      * Configure security filter chain with comprehensive security measures
      */
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        AccessDeniedHandlerImpl accessDeniedPage = new AccessDeniedHandlerImpl();
+        accessDeniedPage.setErrorPage("/access-denied");
+
         http
             // CORS configuration
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
 
             // CSRF protection - disabled for API endpoints but can be enabled for JSP pages
             .csrf(csrf -> csrf
-                .ignoringRequestMatchers("/api/**") // Disable CSRF for API endpoints
+                .ignoringRequestMatchers("/api/**", "/actuator/**") // Disable CSRF for API and actuator endpoints
                 .csrfTokenRepository(org.springframework.security.web.csrf.CookieCsrfTokenRepository.withHttpOnlyFalse())
             )
 
-            // Session management
+            // Session management (no maximumSessions: its SessionRegistry is per node, sessions are shared)
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
-                .maximumSessions(1)
-                .maxSessionsPreventsLogin(false)
-                .and()
                 .sessionFixation().migrateSession()
                 .invalidSessionUrl("/login")
             )
 
-            // Authorization rules
+            // Signed-in user resolved from the session attributes set at login
+            .securityContext(context -> context
+                .securityContextRepository(sessionSecurityContextRepository())
+            )
+
+            // Requests picked for DEBUG tracing are marked as soon as the user is known
+            .addFilterAfter(new CustomerDebugTraceFilter(customerDebugTrace), SecurityContextHolderFilter.class)
+
+            // Prometheus signs in with a bearer token instead of a session
+            .addFilterAfter(new MetricsScrapeTokenFilter("/actuator/prometheus", metricsScrapeToken),
+                            SecurityContextHolderFilter.class)
+
+            // No saved requests: login always lands on the dashboard, and saving one would
+            // store a session for every anonymous request that is turned away
+            .requestCache(cache -> cache
+                .requestCache(new NullRequestCache())
+            )
+
+            // Authorization rules (controllers only check which customer's data is accessed)
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
                 .requestMatchers("/", "/login", "/register", "/css/**", "/js/**", "/images/**").permitAll()
                 .requestMatchers("/api/auth/login", "/api/auth/logout", "/api/auth/status").permitAll()
                 .requestMatchers("/api/customers/register", "/api/customers/check-email").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/info").permitAll()
 
                 // Admin endpoints
                 .requestMatchers("/admin/**", "/jsp/admin/**").hasRole("ADMIN")
-                .requestMatchers("/api/products").hasRole("ADMIN") // POST, PUT, DELETE
+                .requestMatchers("/actuator/loggers/**", "/actuator/debugtrace").hasRole("ADMIN")
+                .requestMatchers("/actuator/prometheus").hasAnyRole("ADMIN", MetricsScrapeTokenFilter.ROLE)
+                .requestMatchers("/api/auth/password-hashing/statistics").hasRole("ADMIN")
+                .requestMatchers("/api/products/cache/statistics").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/products/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PATCH, "/api/products/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
                 .requestMatchers("/api/customers/search", "/api/customers").hasRole("ADMIN") // Admin customer management
-                .requestMatchers("/api/orders/statistics", "/api/orders/status/**", "/api/orders/date-range").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/api/customers/{customerId}").hasRole("ADMIN")
+                .requestMatchers("/api/orders/statistics", "/api/orders/analytics", "/api/orders/status/**",
+                                 "/api/orders/date-range", "/api/orders/stream").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/orders").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PATCH, "/api/orders/{orderId}/status").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/api/orders/{orderId}").hasRole("ADMIN")
 
                 // Customer endpoints
+                .requestMatchers(HttpMethod.POST, "/api/orders", "/api/orders/checkout").hasRole("CUSTOMER")
                 .requestMatchers("/api/customers/{customerId}").hasAnyRole("ADMIN", "CUSTOMER")
                 .requestMatchers("/api/orders/customer/**").hasAnyRole("ADMIN", "CUSTOMER")
-                .requestMatchers("/api/orders/{orderId}").hasAnyRole("ADMIN", "CUSTOMER")
+                .requestMatchers("/api/orders/{orderId}", "/api/orders/{orderId}/cancel").hasAnyRole("ADMIN", "CUSTOMER")
 
                 // Authenticated endpoints
                 .requestMatchers("/api/products/**", "/api/orders/**").authenticated()
@@ -78,14 +127,15 @@ public class SecurityConfig {
 
             // Security headers
             .headers(headers -> headers
-                .frameOptions().deny()
-                .contentTypeOptions().and()
+                .frameOptions(frameOptions -> frameOptions.deny())
+                .contentTypeOptions(Customizer.withDefaults())
                 .httpStrictTransportSecurity(hstsConfig -> hstsConfig
                     .maxAgeInSeconds(31536000)
                     .includeSubDomains(true)
                 )
-                .referrerPolicy(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN)
-                .and()
+                .referrerPolicy(referrerPolicy -> referrerPolicy
+                    .policy(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN)
+                )
                 .addHeaderWriter((request, response) -> {
                     response.setHeader("X-Content-Type-Options", "nosniff");
                     response.setHeader("X-Frame-Options", "DENY");
@@ -116,9 +166,17 @@ public class SecurityConfig {
 
             // Exception handling
             .exceptionHandling(exceptions -> exceptions
-                .accessDeniedPage("/access-denied")
+                .accessDeniedHandler((request, response, accessDeniedException) -> {
+                    if (request.getRequestURI().startsWith("/api/") || request.getRequestURI().startsWith("/actuator/")) {
+                        response.setStatus(403);
+                        response.setContentType("application/json");
+                        response.getWriter().write("{\"error\":\"Access denied\"}");
+                    } else {
+                        accessDeniedPage.handle(request, response, accessDeniedException);
+                    }
+                })
                 .authenticationEntryPoint((request, response, authException) -> {
-                    if (request.getRequestURI().startsWith("/api/")) {
+                    if (request.getRequestURI().startsWith("/api/") || request.getRequestURI().startsWith("/actuator/")) {
                         response.setStatus(401);
                         response.setContentType("application/json");
                         response.getWriter().write("{\"error\":\"Authentication required\"}");
@@ -131,6 +189,14 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Security context taken from the session attributes set at login
+     */
+    @Bean
+    public SessionSecurityContextRepository sessionSecurityContextRepository() {
+        return new SessionSecurityContextRepository();
+    }
+
     /**
      * CORS configuration to allow Angular frontend communication
      */
@@ -0,0 +1,17 @@
+package com.grocery.ordering.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+/**
+ * HTTP sessions are kept in user_sessions by
+ * {@link com.grocery.ordering.repository.UserSessionRepository} instead of the
+ * servlet container, so requests can go to any node. The cookie keeps the
+ * server.servlet.session.cookie settings, including the JSESSIONID name.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Configuration
+@EnableSpringHttpSession
+public class SessionConfig {
+}
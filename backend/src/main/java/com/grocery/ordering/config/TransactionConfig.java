@@ -0,0 +1,31 @@
+package com.grocery.ordering.config;
+
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+
+/**
+ * Transaction manager settings
+ * Synchronization is limited to actual transactions. Otherwise a method
+ * running without one (NOT_SUPPORTED, SUPPORTS) keeps the first connection it
+ * touches until it returns. Logins would then hold a pooled connection while
+ * their password hash is checked on the hashing executor, and orders while
+ * they wait for a group commit; this way each statement returns its connection.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    public TransactionManagerCustomizer<AbstractPlatformTransactionManager> transactionSynchronizationCustomizer() {
+        return new TransactionManagerCustomizer<>() {
+            @Override
+            public void customize(AbstractPlatformTransactionManager transactionManager) {
+                transactionManager.setTransactionSynchronization(
+                    AbstractPlatformTransactionManager.SYNCHRONIZATION_ON_ACTUAL_TRANSACTION);
+            }
+        };
+    }
+}
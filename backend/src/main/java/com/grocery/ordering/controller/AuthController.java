@@ -2,13 +2,17 @@ package com.grocery.ordering.controller;
 
 import com.grocery.ordering.dto.ApiResponse;
 import com.grocery.ordering.dto.LoginRequest;
+import com.grocery.ordering.security.UserPrincipal;
 import com.grocery.ordering.service.AuthService;
+import com.grocery.ordering.service.PasswordHashingService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -25,6 +29,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     /**
      * User login endpoint
      */
@@ -39,16 +46,14 @@ public class AuthController {
             );
 
             if (authResult.isSuccess()) {
-                // Create session
+                // Create session (IDs only; the session is stored in the database)
                 HttpSession session = request.getSession(true);
                 session.setAttribute("userType", authResult.getUserType());
                 session.setAttribute("authenticated", true);
                 
                 if ("ADMIN".equals(authResult.getUserType())) {
-                    session.setAttribute("adminUser", authResult.getAdminUser());
                     session.setAttribute("username", authResult.getAdminUser().getUsername());
                 } else {
-                    session.setAttribute("customer", authResult.getCustomer());
                     session.setAttribute("customerId", authResult.getCustomer().getCustomerId());
                 }
 
@@ -62,6 +67,10 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error(authResult.getMessage()));
             }
+        } catch (PasswordHashingService.HashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Login failed: " + e.getMessage()));
@@ -89,21 +98,19 @@ public class AuthController {
      * Check authentication status
      */
     @GetMapping("/status")
-    public ResponseEntity<ApiResponse<Object>> getAuthStatus(HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<Object>> getAuthStatus(@AuthenticationPrincipal UserPrincipal user) {
         try {
-            HttpSession session = request.getSession(false);
-            if (session != null && Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-                String userType = (String) session.getAttribute("userType");
+            if (user != null) {
                 Object userData = null;
                 
-                if ("ADMIN".equals(userType)) {
-                    userData = session.getAttribute("adminUser");
+                if (user.isAdmin()) {
+                    userData = authService.findAdminUser(user.getUsername()).orElse(null);
                 } else {
-                    userData = session.getAttribute("customer");
+                    userData = authService.findCustomer(user.getCustomerId()).orElse(null);
                 }
 
                 return ResponseEntity.ok(ApiResponse.success("User is authenticated", 
-                    new LoginResponse(userType, userData)));
+                    new LoginResponse(user.getUserType(), userData)));
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("User is not authenticated"));
@@ -142,23 +149,14 @@ public class AuthController {
      */
     @PostMapping("/change-password")
     public ResponseEntity<ApiResponse<String>> changePassword(@RequestBody ChangePasswordRequest request, 
-                                                             HttpServletRequest httpRequest) {
+                                                             @AuthenticationPrincipal UserPrincipal user) {
         try {
-            HttpSession session = httpRequest.getSession(false);
-            if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("User not authenticated"));
-            }
-
-            String userType = (String) session.getAttribute("userType");
             boolean success = false;
 
-            if ("ADMIN".equals(userType)) {
-                String username = (String) session.getAttribute("username");
-                success = authService.changeAdminPassword(username, request.getOldPassword(), request.getNewPassword());
+            if (user.isAdmin()) {
+                success = authService.changeAdminPassword(user.getUsername(), request.getOldPassword(), request.getNewPassword());
             } else {
-                String customerId = (String) session.getAttribute("customerId");
-                success = authService.changeCustomerPassword(customerId, request.getOldPassword(), request.getNewPassword());
+                success = authService.changeCustomerPassword(user.getCustomerId(), request.getOldPassword(), request.getNewPassword());
             }
 
             if (success) {
@@ -173,6 +171,15 @@ public class AuthController {
         }
     }
 
+    /**
+     * Password hashing pool statistics endpoint - Admin only
+     */
+    @GetMapping("/password-hashing/statistics")
+    public ResponseEntity<ApiResponse<PasswordHashingService.HashingStatistics>> getPasswordHashingStatistics() {
+        return ResponseEntity.ok(ApiResponse.success("Password hashing statistics retrieved",
+            passwordHashingService.getStatistics()));
+    }
+
     /**
      * Login response DTO
      */
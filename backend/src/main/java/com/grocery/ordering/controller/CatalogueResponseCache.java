@@ -0,0 +1,158 @@
+package com.grocery.ordering.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grocery.ordering.config.ReplicaRoutingDataSource;
+import com.grocery.ordering.dto.ApiResponse;
+import com.grocery.ordering.service.CatalogueVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialised product catalogue responses keyed by catalogue version
+ * A successful response is encoded once and kept under its URL (path, query
+ * and fields=) together with the catalogue version read before it was
+ * loaded. Until the version moves on, the same URL is answered from these
+ * bytes without a query or a JSON encode, and Spring answers a matching
+ * If-None-Match with 304.
+ * Cached bodies keep the timestamp of the request that rendered them, so the
+ * ETag is a weak one derived from the URL and the rendered data alone: the
+ * same catalogue gives the same ETag after a re-render and on every node.
+ * The version only counts product changes made on this node, so responses
+ * also expire after app.products.response-cache.expire-after-write-ms to
+ * pick up other nodes' changes and reservations.
+ * Error responses are encoded every time and carry no ETag.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class CatalogueResponseCache {
+
+    private static final int ETAG_BYTES = 16;
+
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.products.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.products.response-cache.maximum-weight-bytes:4194304}")
+    private long maximumWeightBytes;
+
+    @Value("${app.products.response-cache.expire-after-write-ms:60000}")
+    private long expireAfterWriteMs;
+
+    private Cache<String, RenderedResponse> responses;
+
+    @PostConstruct
+    public void init() {
+        responses = Caffeine.newBuilder()
+            .maximumWeight(maximumWeightBytes)
+            .weigher((String key, RenderedResponse response) -> key.length() * 2 + response.body.length)
+            .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "product-responses");
+    }
+
+    /**
+     * Answer a catalogue GET from the cache, or run the handler and cache what it returns
+     */
+    public ResponseEntity<byte[]> get(HttpServletRequest request, Supplier<ResponseEntity<?>> handler) {
+        String key = request.getQueryString() == null
+            ? request.getRequestURI() : request.getRequestURI() + '?' + request.getQueryString();
+        long version = catalogueVersion.current();
+        if (enabled) {
+            RenderedResponse cached = responses.getIfPresent(key);
+            if (cached != null && cached.version == version) {
+                return cached.toResponseEntity();
+            }
+        }
+
+        // Read from the primary: a lagging replica's answer would be kept under the current version
+        ResponseEntity<?> result = ReplicaRoutingDataSource.onPrimary(handler);
+        String fields = request.getParameter(FieldProjectionAdvice.FIELDS_PARAMETER);
+        byte[] body = encode(result.getBody(), fields);
+        if (!result.getStatusCode().isSameCodeAs(HttpStatus.OK)) {
+            return ResponseEntity.status(result.getStatusCode()).contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+
+        Object data = result.getBody() instanceof ApiResponse<?> response ? response.getData() : result.getBody();
+        RenderedResponse rendered = new RenderedResponse(version, body, etag(key, encode(data, fields)));
+        if (enabled) {
+            responses.put(key, rendered);
+        }
+        return rendered.toResponseEntity();
+    }
+
+    private byte[] encode(Object body, String fields) {
+        FilterProvider filters = FieldProjectionAdvice.filtersFor(fields);
+        try {
+            return filters == null
+                ? objectMapper.writeValueAsBytes(body)
+                : objectMapper.writer(filters).writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String etag(String key, byte[] data) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(key.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) '\n');
+            byte[] digest = sha256.digest(data);
+            byte[] prefix = new byte[ETAG_BYTES];
+            System.arraycopy(digest, 0, prefix, 0, ETAG_BYTES);
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(prefix) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class RenderedResponse {
+        private final long version;
+        private final byte[] body;
+        private final String etag;
+
+        private RenderedResponse(long version, byte[] body, String etag) {
+            this.version = version;
+            this.body = body;
+            this.etag = etag;
+        }
+
+        private ResponseEntity<byte[]> toResponseEntity() {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+        }
+    }
+}
@@ -2,13 +2,15 @@ package com.grocery.ordering.controller;
 
 import com.grocery.ordering.dto.ApiResponse;
 import com.grocery.ordering.model.Customer;
+import com.grocery.ordering.security.UserPrincipal;
 import com.grocery.ordering.service.CustomerService;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
+import com.grocery.ordering.service.PasswordHashingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -39,6 +41,10 @@ public class CustomerController {
             registeredCustomer.setPassword(null);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Customer registered successfully", registeredCustomer));
+        } catch (PasswordHashingService.HashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error("Customer registration failed: " + e.getMessage()));
@@ -51,10 +57,10 @@ public class CustomerController {
     @PutMapping("/{customerId}")
     public ResponseEntity<ApiResponse<Customer>> updateCustomer(@PathVariable String customerId,
                                                                @Valid @RequestBody Customer customer,
-                                                               HttpServletRequest request) {
+                                                               @AuthenticationPrincipal UserPrincipal user) {
         try {
-            // Check authentication and authorization
-            if (!isAuthorized(request, customerId, "CUSTOMER")) {
+            // Check authorization
+            if (!user.canAccessCustomer(customerId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(ApiResponse.error("Access denied"));
             }
@@ -74,10 +80,10 @@ public class CustomerController {
      */
     @GetMapping("/{customerId}")
     public ResponseEntity<ApiResponse<Customer>> getCustomer(@PathVariable String customerId,
-                                                            HttpServletRequest request) {
+                                                            @AuthenticationPrincipal UserPrincipal user) {
         try {
-            // Check authentication and authorization
-            if (!isAuthorized(request, customerId, "CUSTOMER")) {
+            // Check authorization
+            if (!user.canAccessCustomer(customerId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(ApiResponse.error("Access denied"));
             }
@@ -102,15 +108,8 @@ public class CustomerController {
      * Search customers by name endpoint (US005) - Admin only
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<Customer>>> searchCustomers(@RequestParam String name,
-                                                                      HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<List<Customer>>> searchCustomers(@RequestParam String name) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
             List<Customer> customers = customerService.searchCustomersByName(name);
             return ResponseEntity.ok(ApiResponse.success("Customers found", customers));
         } catch (Exception e) {
@@ -127,14 +126,8 @@ public class CustomerController {
      * Get all customers endpoint - Admin only
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Customer>>> getAllCustomers(HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<List<Customer>>> getAllCustomers() {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
             List<Customer> customers = customerService.getAllCustomers();
             return ResponseEntity.ok(ApiResponse.success("All customers retrieved", customers));
         } catch (Exception e) {
@@ -147,15 +140,8 @@ public class CustomerController {
      * Delete customer endpoint - Admin only
      */
     @DeleteMapping("/{customerId}")
-    public ResponseEntity<ApiResponse<String>> deleteCustomer(@PathVariable String customerId,
-                                                             HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<String>> deleteCustomer(@PathVariable String customerId) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
             boolean deleted = customerService.deleteCustomer(customerId);
             if (deleted) {
                 return ResponseEntity.ok(ApiResponse.success("Customer deleted successfully", "Deleted"));
@@ -182,42 +168,4 @@ public class CustomerController {
                 .body(ApiResponse.error("Email check failed: " + e.getMessage()));
         }
     }
-
-    /**
-     * Check if user is authorized to access customer data
-     */
-    private boolean isAuthorized(HttpServletRequest request, String customerId, String requiredUserType) {
-        HttpSession session = request.getSession(false);
-        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            return false;
-        }
-
-        String userType = (String) session.getAttribute("userType");
-        
-        // Admin can access any customer data
-        if ("ADMIN".equals(userType)) {
-            return true;
-        }
-
-        // Customer can only access their own data
-        if (requiredUserType.equals(userType)) {
-            String sessionCustomerId = (String) session.getAttribute("customerId");
-            return customerId.equals(sessionCustomerId);
-        }
-
-        return false;
-    }
-
-    /**
-     * Check if user is authenticated as admin
-     */
-    private boolean isAdminAuthenticated(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            return false;
-        }
-
-        String userType = (String) session.getAttribute("userType");
-        return "ADMIN".equals(userType);
-    }
 }
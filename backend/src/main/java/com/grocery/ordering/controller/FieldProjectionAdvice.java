@@ -0,0 +1,75 @@
+package com.grocery.ordering.controller;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.grocery.ordering.config.JacksonConfig;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sparse field projection for JSON responses
+ * With ?fields=orderId,status,orderAmount only the listed properties of the
+ * orders, products and customers in the response are written; the response
+ * envelope (ApiResponse, CursorPage) is kept whole. Unknown names are ignored.
+ * Requests without the parameter are passed through untouched.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@RestControllerAdvice
+public class FieldProjectionAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String FIELDS_PARAMETER = "fields";
+    private static final int MAX_FIELDS = 50;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        FilterProvider filters = filtersFor(servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER));
+        if (filters == null) {
+            return body;
+        }
+
+        MappingJacksonValue value = body instanceof MappingJacksonValue jacksonValue
+            ? jacksonValue : new MappingJacksonValue(body);
+        value.setFilters(filters);
+        return value;
+    }
+
+    /**
+     * Filters for a fields= parameter value, or null when it projects nothing
+     */
+    static FilterProvider filtersFor(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (String name : fields.split(",")) {
+            if (!name.isBlank() && names.size() < MAX_FIELDS) {
+                names.add(name.trim());
+            }
+        }
+        return JacksonConfig.allFields()
+            .addFilter(JacksonConfig.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+}
@@ -1,20 +1,32 @@
 package com.grocery.ordering.controller;
 
 import com.grocery.ordering.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.grocery.ordering.dto.CheckoutRequest;
+import com.grocery.ordering.dto.CursorPage;
 import com.grocery.ordering.model.Order;
 import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.repository.OrderRepository.OrderFilter;
+import com.grocery.ordering.security.UserPrincipal;
+import com.grocery.ordering.service.OrderAnalyticsSnapshot;
+import com.grocery.ordering.service.OrderRejectedException;
 import com.grocery.ordering.service.OrderService;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -28,50 +40,70 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:4200", allowCredentials = "true")
 public class OrderController {
 
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Create order endpoint (US004)
      */
     @PostMapping
     public ResponseEntity<ApiResponse<Order>> createOrder(@Valid @RequestBody Order order,
-                                                         HttpServletRequest request) {
+                                                         @AuthenticationPrincipal UserPrincipal user) {
         try {
-            // Check customer authentication
-            if (!isCustomerAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Customer authentication required"));
-            }
-
             // Set customer ID from session
-            HttpSession session = request.getSession(false);
-            String customerId = (String) session.getAttribute("customerId");
-            order.setCustomerId(customerId);
+            order.setCustomerId(user.getCustomerId());
 
             Order createdOrder = orderService.createOrder(order);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Order created successfully", createdOrder));
+        } catch (OrderRejectedException e) {
+            // The reason code lets clients tell a stock shortage from a bad request
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Order creation failed: " + e.getMessage(), e.getReason().name()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error("Order creation failed: " + e.getMessage()));
         }
     }
 
+    /**
+     * Checkout cart endpoint - creates one order with several items
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<ApiResponse<Order>> checkout(@Valid @RequestBody CheckoutRequest checkoutRequest,
+                                                      @AuthenticationPrincipal UserPrincipal user) {
+        try {
+            Order createdOrder = orderService.checkout(user.getCustomerId(), checkoutRequest.getItems());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Order created successfully", createdOrder));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Checkout failed: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get customer order details endpoint (US010)
      */
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<ApiResponse<List<Order>>> getCustomerOrderDetails(@PathVariable String customerId,
-                                                                           HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<CursorPage<Order>>> getCustomerOrderDetails(@PathVariable String customerId,
+                                                                                 @RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                                                 @AuthenticationPrincipal UserPrincipal user) {
         try {
             // Check authorization
-            if (!isAuthorized(request, customerId)) {
+            if (!user.canAccessCustomer(customerId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(ApiResponse.error("Access denied"));
             }
 
-            List<Order> orders = orderService.getCustomerOrderDetails(customerId);
+            CursorPage<Order> orders = orderService.getCustomerOrderDetails(customerId, cursor, limit);
             return ResponseEntity.ok(ApiResponse.success("Customer orders retrieved", orders));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -84,27 +116,16 @@ public class OrderController {
      */
     @GetMapping("/{orderId}")
     public ResponseEntity<ApiResponse<Order>> getOrder(@PathVariable Integer orderId,
-                                                      HttpServletRequest request) {
+                                                      @AuthenticationPrincipal UserPrincipal user) {
         try {
-            // Check authentication
-            if (!isAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Authentication required"));
-            }
-
             Optional<Order> orderOpt = orderService.findById(orderId);
             if (orderOpt.isPresent()) {
                 Order order = orderOpt.get();
 
                 // Check if customer can access this order
-                HttpSession session = request.getSession(false);
-                String userType = (String) session.getAttribute("userType");
-                if ("CUSTOMER".equals(userType)) {
-                    String customerId = (String) session.getAttribute("customerId");
-                    if (!order.getCustomerId().equals(customerId)) {
-                        return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                            .body(ApiResponse.error("Access denied"));
-                    }
+                if (!user.canAccessCustomer(order.getCustomerId())) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(ApiResponse.error("Access denied"));
                 }
 
                 return ResponseEntity.ok(ApiResponse.success("Order found", order));
@@ -122,15 +143,10 @@ public class OrderController {
      * Get all orders with details endpoint - Admin only
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Order>>> getAllOrders(HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<CursorPage<Order>>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
-            List<Order> orders = orderService.getAllOrdersWithDetails();
+            CursorPage<Order> orders = orderService.getOrdersPage(OrderFilter.all(), cursor, limit);
             return ResponseEntity.ok(ApiResponse.success("All orders retrieved", orders));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -138,20 +154,41 @@ public class OrderController {
         }
     }
 
+    /**
+     * Stream orders as newline-delimited JSON endpoint - Admin only
+     * Memory use stays flat regardless of how many orders match.
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        OrderFilter filter = OrderFilter.all().customerId(customerId).status(status).between(startDate, endDate);
+        ObjectWriter writer = objectMapper.writerFor(Order.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            orderService.streamOrders(filter, order -> {
+                try {
+                    writer.writeValue(generator, order);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     /**
      * Update order status endpoint - Admin only
      */
     @PatchMapping("/{orderId}/status")
     public ResponseEntity<ApiResponse<String>> updateOrderStatus(@PathVariable Integer orderId,
-                                                                @RequestBody StatusUpdateRequest request,
-                                                                HttpServletRequest httpRequest) {
+                                                                @RequestBody StatusUpdateRequest request) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(httpRequest)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
             boolean updated = orderService.updateOrderStatus(orderId, request.getStatus());
             if (updated) {
                 return ResponseEntity.ok(ApiResponse.success("Order status updated successfully", "Updated"));
@@ -170,22 +207,13 @@ public class OrderController {
      */
     @PatchMapping("/{orderId}/cancel")
     public ResponseEntity<ApiResponse<String>> cancelOrder(@PathVariable Integer orderId,
-                                                          HttpServletRequest request) {
+                                                          @AuthenticationPrincipal UserPrincipal user) {
         try {
-            // Check authentication
-            if (!isAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Authentication required"));
-            }
-
             // Check if customer can cancel this order
-            HttpSession session = request.getSession(false);
-            String userType = (String) session.getAttribute("userType");
-            if ("CUSTOMER".equals(userType)) {
+            if (user.isCustomer()) {
                 Optional<Order> orderOpt = orderService.findById(orderId);
                 if (orderOpt.isPresent()) {
-                    String customerId = (String) session.getAttribute("customerId");
-                    if (!orderOpt.get().getCustomerId().equals(customerId)) {
+                    if (!user.canAccessCustomer(orderOpt.get().getCustomerId())) {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN)
                             .body(ApiResponse.error("Access denied"));
                     }
@@ -209,15 +237,8 @@ public class OrderController {
      * Delete order endpoint - Admin only
      */
     @DeleteMapping("/{orderId}")
-    public ResponseEntity<ApiResponse<String>> deleteOrder(@PathVariable Integer orderId,
-                                                          HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<String>> deleteOrder(@PathVariable Integer orderId) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
             boolean deleted = orderService.deleteOrder(orderId);
             if (deleted) {
                 return ResponseEntity.ok(ApiResponse.success("Order deleted successfully", "Deleted"));
@@ -235,16 +256,11 @@ public class OrderController {
      * Get orders by status endpoint - Admin only
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<ApiResponse<List<Order>>> getOrdersByStatus(@PathVariable OrderStatus status,
-                                                                     HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<CursorPage<Order>>> getOrdersByStatus(@PathVariable OrderStatus status,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
-            List<Order> orders = orderService.findByStatus(status);
+            CursorPage<Order> orders = orderService.getOrdersPage(OrderFilter.all().status(status), cursor, limit);
             return ResponseEntity.ok(ApiResponse.success("Orders by status retrieved", orders));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -256,18 +272,13 @@ public class OrderController {
      * Get orders by date range endpoint - Admin only
      */
     @GetMapping("/date-range")
-    public ResponseEntity<ApiResponse<List<Order>>> getOrdersByDateRange(
+    public ResponseEntity<ApiResponse<CursorPage<Order>>> getOrdersByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
-            HttpServletRequest request) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
-            List<Order> orders = orderService.findByDateRange(startDate, endDate);
+            CursorPage<Order> orders = orderService.getOrdersPage(OrderFilter.all().between(startDate, endDate), cursor, limit);
             return ResponseEntity.ok(ApiResponse.success("Orders by date range retrieved", orders));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -279,14 +290,8 @@ public class OrderController {
      * Get order statistics endpoint - Admin only
      */
     @GetMapping("/statistics")
-    public ResponseEntity<ApiResponse<OrderService.OrderStatistics>> getOrderStatistics(HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<OrderService.OrderStatistics>> getOrderStatistics() {
         try {
-            // Check admin authentication
-            if (!isAdminAuthenticated(request)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(ApiResponse.error("Admin access required"));
-            }
-
             OrderService.OrderStatistics statistics = orderService.getOrderStatistics();
             return ResponseEntity.ok(ApiResponse.success("Order statistics retrieved", statistics));
         } catch (Exception e) {
@@ -296,62 +301,26 @@ public class OrderController {
     }
 
     /**
-     * Check if user is authenticated
-     */
-    private boolean isAuthenticated(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        return session != null && Boolean.TRUE.equals(session.getAttribute("authenticated"));
-    }
-
-    /**
-     * Check if user is authenticated as admin
-     */
-    private boolean isAdminAuthenticated(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            return false;
-        }
-
-        String userType = (String) session.getAttribute("userType");
-        return "ADMIN".equals(userType);
-    }
-
-    /**
-     * Check if user is authenticated as customer
+     * Get order totals grouped by day, status, product or customer endpoint - Admin only
      */
-    private boolean isCustomerAuthenticated(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            return false;
-        }
-
-        String userType = (String) session.getAttribute("userType");
-        return "CUSTOMER".equals(userType);
-    }
-
-    /**
-     * Check if user is authorized to access customer data
-     */
-    private boolean isAuthorized(HttpServletRequest request, String customerId) {
-        HttpSession session = request.getSession(false);
-        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            return false;
-        }
-
-        String userType = (String) session.getAttribute("userType");
-
-        // Admin can access any customer data
-        if ("ADMIN".equals(userType)) {
-            return true;
-        }
-
-        // Customer can only access their own data
-        if ("CUSTOMER".equals(userType)) {
-            String sessionCustomerId = (String) session.getAttribute("customerId");
-            return customerId.equals(sessionCustomerId);
+    @GetMapping("/analytics")
+    public ResponseEntity<ApiResponse<OrderAnalyticsSnapshot.Summary>> getOrderAnalytics(
+            @RequestParam(defaultValue = "DAY") OrderAnalyticsSnapshot.GroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            OrderAnalyticsSnapshot.Summary summary = orderService.getOrderAnalytics(groupBy, startDate, endDate,
+                                                                                    status, limit);
+            return ResponseEntity.ok(ApiResponse.success("Order analytics retrieved", summary));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Failed to retrieve order analytics: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to retrieve order analytics: " + e.getMessage()));
         }
-
-        return false;
     }
 
     /**
@@ -1,9 +1,11 @@
 package com.grocery.ordering.controller;
 
+import com.grocery.ordering.security.UserPrincipal;
 import com.grocery.ordering.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,14 +36,10 @@ public class WebController {
      * Login page
      */
     @GetMapping("/login")
-    public String login(HttpServletRequest request) {
+    public String login(@AuthenticationPrincipal UserPrincipal user) {
         // Check if user is already authenticated
-        HttpSession session = request.getSession(false);
-        if (session != null && Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            String userType = (String) session.getAttribute("userType");
-            if ("ADMIN".equals(userType)) {
-                return "redirect:/dashboard";
-            }
+        if (user != null && user.isAdmin()) {
+            return "redirect:/dashboard";
         }
         return "login";
     }
@@ -62,7 +60,6 @@ public class WebController {
                 HttpSession session = request.getSession(true);
                 session.setAttribute("userType", "ADMIN");
                 session.setAttribute("authenticated", true);
-                session.setAttribute("adminUser", authResult.getAdminUser());
                 session.setAttribute("username", authResult.getAdminUser().getUsername());
                 
                 return "redirect:/dashboard";
@@ -80,20 +77,14 @@ public class WebController {
      * Admin dashboard
      */
     @GetMapping("/dashboard")
-    public String dashboard(HttpServletRequest request, Model model) {
+    public String dashboard(@AuthenticationPrincipal UserPrincipal user, Model model) {
         // Check authentication
-        HttpSession session = request.getSession(false);
-        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
-            return "redirect:/login";
-        }
-
-        String userType = (String) session.getAttribute("userType");
-        if (!"ADMIN".equals(userType)) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/login";
         }
 
         // Add user info to model
-        model.addAttribute("adminUser", session.getAttribute("adminUser"));
+        model.addAttribute("adminUser", authService.findAdminUser(user.getUsername()).orElse(null));
         return "dashboard";
     }
 
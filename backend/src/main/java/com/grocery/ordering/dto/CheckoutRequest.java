@@ -0,0 +1,74 @@
+package com.grocery.ordering.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * DTO for checking out a cart with several products
+ * 
+ * @author Chirag Singhal (chirag127)
+ */
+public class CheckoutRequest {
+    
+    @NotEmpty(message = "Cart must contain at least one item")
+    @Valid
+    private List<CartItem> items;
+
+    // Default constructor
+    public CheckoutRequest() {}
+
+    // Constructor
+    public CheckoutRequest(List<CartItem> items) {
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public List<CartItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CartItem> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutRequest{" +
+                "items=" + items +
+                '}';
+    }
+
+    /**
+     * One cart line
+     */
+    public static class CartItem {
+        
+        @NotNull(message = "Product ID is required")
+        private Integer productId;
+        
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+
+        public CartItem() {}
+
+        public CartItem(Integer productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public Integer getProductId() { return productId; }
+        public void setProductId(Integer productId) { this.productId = productId; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+        @Override
+        public String toString() {
+            return "CartItem{productId=" + productId + ", quantity=" + quantity + '}';
+        }
+    }
+}
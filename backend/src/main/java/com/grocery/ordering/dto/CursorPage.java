@@ -0,0 +1,67 @@
+package com.grocery.ordering.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ * 
+ * @author Chirag Singhal (chirag127)
+ */
+public class CursorPage<T> {
+    
+    private List<T> items;
+    private String nextCursor;
+    private int limit;
+
+    // Default constructor
+    public CursorPage() {}
+
+    // Constructor with all fields
+    public CursorPage(List<T> items, String nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Check if another page follows this one
+     */
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+                "items=" + (items != null ? items.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", limit=" + limit +
+                '}';
+    }
+}
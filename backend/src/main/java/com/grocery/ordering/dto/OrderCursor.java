@@ -0,0 +1,65 @@
+package com.grocery.ordering.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in an order listing sorted by (order_date, order_id) descending
+ * Encoded as an opaque URL-safe string for clients.
+ * 
+ * @author Chirag Singhal (chirag127)
+ */
+public class OrderCursor {
+    
+    private final LocalDateTime orderDate;
+    private final int orderId;
+
+    public OrderCursor(LocalDateTime orderDate, int orderId) {
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+
+    /**
+     * Encode the cursor for clients
+     */
+    public String encode() {
+        String raw = orderDate + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client, null when none was given
+     */
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                   Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Getters
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderCursor{" +
+                "orderDate=" + orderDate +
+                ", orderId=" + orderId +
+                '}';
+    }
+}
@@ -0,0 +1,113 @@
+package com.grocery.ordering.logging;
+
+import com.grocery.ordering.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DEBUG logging for a sample of one customer's requests
+ * Set at startup through app.logging.debug-trace.* or at runtime through the
+ * debugtrace actuator endpoint. {@link CustomerDebugTraceFilter} marks the
+ * sampled requests in the MDC and the turbo filter in logback-spring.xml lets
+ * their DEBUG events through whatever the logger levels are.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+@Endpoint(id = "debugtrace")
+public class CustomerDebugTrace {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerDebugTrace.class);
+
+    @Value("${app.logging.debug-trace.customer-id:}")
+    private String initialCustomerId;
+
+    @Value("${app.logging.debug-trace.sample-rate:1.0}")
+    private double initialSampleRate;
+
+    private volatile Target target;
+
+    @PostConstruct
+    public void init() {
+        if (!initialCustomerId.isBlank()) {
+            trace(initialCustomerId, initialSampleRate);
+        }
+    }
+
+    /**
+     * Customer currently traced, if any
+     */
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Target current = target;
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("customerId", current != null ? current.customerId : null);
+        settings.put("sampleRate", current != null ? current.sampleRate : 0.0);
+        return settings;
+    }
+
+    /**
+     * Trace a share of the requests of one customer, replacing any earlier target
+     */
+    @WriteOperation
+    public Map<String, Object> trace(String customerId, @Nullable Double sampleRate) {
+        double rate = sampleRate != null ? sampleRate : 1.0;
+        if (customerId == null || customerId.isBlank() || rate <= 0.0 || rate > 1.0) {
+            throw new InvalidEndpointRequestException("A customer ID and a sample rate in (0, 1] are required",
+                                                      "Invalid debug trace target");
+        }
+        target = new Target(customerId.trim(), rate);
+        logger.info("Tracing {}% of the requests of customer {} at DEBUG", rate * 100, customerId);
+        return settings();
+    }
+
+    /**
+     * Stop tracing
+     */
+    @DeleteOperation
+    public void stop() {
+        if (target != null) {
+            logger.info("Stopped tracing customer {}", target.customerId);
+        }
+        target = null;
+    }
+
+    /**
+     * Whether any customer is traced; lets the filter skip resolving the user
+     */
+    public boolean isActive() {
+        return target != null;
+    }
+
+    /**
+     * Whether this request of the given user is to be traced
+     */
+    public boolean shouldTrace(UserPrincipal user) {
+        Target current = target;
+        return current != null && user.isCustomer() && current.customerId.equals(user.getCustomerId())
+            && (current.sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < current.sampleRate);
+    }
+
+    private static final class Target {
+        private final String customerId;
+        private final double sampleRate;
+
+        Target(String customerId, double sampleRate) {
+            this.customerId = customerId;
+            this.sampleRate = sampleRate;
+        }
+    }
+}
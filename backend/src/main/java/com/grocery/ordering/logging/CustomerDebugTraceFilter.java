@@ -0,0 +1,58 @@
+package com.grocery.ordering.logging;
+
+import com.grocery.ordering.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Marks the requests picked by {@link CustomerDebugTrace} in the MDC
+ * Runs in the security filter chain right after the security context is
+ * available, so the remaining filter decisions of a traced request are logged
+ * too. While nobody is traced it does nothing, not even resolve the user.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class CustomerDebugTraceFilter extends OncePerRequestFilter {
+
+    private static final String TRACE_KEY = "debugTrace";
+    private static final String CUSTOMER_KEY = "customerId";
+
+    private final CustomerDebugTrace debugTrace;
+
+    public CustomerDebugTraceFilter(CustomerDebugTrace debugTrace) {
+        this.debugTrace = debugTrace;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!debugTrace.isActive()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal user)
+                || !debugTrace.shouldTrace(user)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        MDC.put(TRACE_KEY, "DEBUG");
+        MDC.put(CUSTOMER_KEY, user.getCustomerId());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(TRACE_KEY);
+            MDC.remove(CUSTOMER_KEY);
+        }
+    }
+}
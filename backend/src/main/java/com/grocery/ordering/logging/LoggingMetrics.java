@@ -0,0 +1,28 @@
+package com.grocery.ordering.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the state of the asynchronous log appender
+ * Both meters stay at zero unless the production logging profile is active.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.events.dropped", MeteredAsyncAppender.class,
+                                appender -> MeteredAsyncAppender.getDroppedEvents())
+            .description("Log events dropped because the asynchronous appender queue was full")
+            .register(registry);
+        Gauge.builder("logging.events.queued", MeteredAsyncAppender::getQueuedEvents)
+            .description("Log events waiting to be written")
+            .register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.grocery.ordering.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous appender that counts the events it drops
+ * Logback's AsyncAppender silently discards events when its queue is past the
+ * discarding threshold (or full, with neverBlock); this one checks first and
+ * counts them, so {@link LoggingMetrics} can publish how much logging was lost.
+ * The appender is created by Logback before the application context exists,
+ * hence the static counters.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final List<MeteredAsyncAppender> STARTED = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted()) {
+            STARTED.add(this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        STARTED.remove(this);
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            DROPPED.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    /**
+     * Events dropped by all instances since startup
+     */
+    static long getDroppedEvents() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * Events waiting in the queues of the running instances
+     */
+    static int getQueuedEvents() {
+        int queued = 0;
+        for (MeteredAsyncAppender appender : STARTED) {
+            queued += appender.getNumberOfElementsInQueue();
+        }
+        return queued;
+    }
+}
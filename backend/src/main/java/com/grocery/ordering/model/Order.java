@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Order entity representing customer orders
@@ -37,6 +38,9 @@ public class Order {
     // Additional fields for order details
     private String customerName;
     private String productName;
+    
+    // Lines of a multi-item order (product ID is null on the order itself)
+    private List<OrderItem> items;
 
     // Default constructor
     public Order() {
@@ -139,6 +143,21 @@ public class Order {
         this.productName = productName;
     }
 
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItem> items) {
+        this.items = items;
+    }
+
+    /**
+     * Check if this order was checked out from a multi-item cart
+     */
+    public boolean isMultiItem() {
+        return productId == null && items != null;
+    }
+
     @Override
     public String toString() {
         return "Order{" +
@@ -151,6 +170,7 @@ public class Order {
                 ", status=" + status +
                 ", customerName='" + customerName + '\'' +
                 ", productName='" + productName + '\'' +
+                ", items=" + items +
                 '}';
     }
 
@@ -0,0 +1,102 @@
+package com.grocery.ordering.model;
+
+import java.math.BigDecimal;
+
+/**
+ * OrderItem entity representing one line of a multi-item order
+ * 
+ * @author Chirag Singhal (chirag127)
+ */
+public class OrderItem {
+    
+    private Integer orderItemId;
+    private Integer orderId;
+    private Integer productId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal lineAmount;
+    
+    // Additional fields for item details
+    private String productName;
+
+    // Default constructor
+    public OrderItem() {}
+
+    // Constructor with essential fields
+    public OrderItem(Integer productId, Integer quantity, BigDecimal unitPrice) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.lineAmount = unitPrice.multiply(new BigDecimal(quantity));
+    }
+
+    // Getters and Setters
+    public Integer getOrderItemId() {
+        return orderItemId;
+    }
+
+    public void setOrderItemId(Integer orderItemId) {
+        this.orderItemId = orderItemId;
+    }
+
+    public Integer getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Integer orderId) {
+        this.orderId = orderId;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public BigDecimal getLineAmount() {
+        return lineAmount;
+    }
+
+    public void setLineAmount(BigDecimal lineAmount) {
+        this.lineAmount = lineAmount;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderItem{" +
+                "orderItemId=" + orderItemId +
+                ", orderId=" + orderId +
+                ", productId=" + productId +
+                ", quantity=" + quantity +
+                ", unitPrice=" + unitPrice +
+                ", lineAmount=" + lineAmount +
+                ", productName='" + productName + '\'' +
+                '}';
+    }
+}
@@ -62,6 +62,18 @@ public class Product {
         this.updatedAt = LocalDateTime.now();
     }
 
+    // Copy constructor
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.productName = other.productName;
+        this.price = other.price;
+        this.quantity = other.quantity;
+        this.reserved = other.reserved;
+        this.customerId = other.customerId;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public Integer getProductId() {
         return productId;
@@ -4,15 +4,17 @@ import com.grocery.ordering.model.Customer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
+import java.util.function.Consumer;
 
 /**
  * Repository for Customer entity with JDBC implementation
@@ -28,25 +30,13 @@ public class CustomerRepository {
 
     private final RowMapper<Customer> customerRowMapper = new CustomerRowMapper();
 
-    /**
-     * Generate unique 6-digit customer ID
-     */
-    public String generateCustomerId() {
-        String customerId;
-        do {
-            Random random = new Random();
-            int id = 100000 + random.nextInt(900000);
-            customerId = "CUS" + String.valueOf(id).substring(0, 3);
-        } while (findByCustomerId(customerId).isPresent());
-        return customerId;
-    }
-
     /**
      * Save customer with SQL injection prevention
+     * The customer ID must already be assigned (see CustomerIdAllocator)
      */
     public Customer save(Customer customer) {
         if (customer.getCustomerId() == null) {
-            customer.setCustomerId(generateCustomerId());
+            throw new RuntimeException("Customer ID must be assigned before saving");
         }
         
         String sql = "INSERT INTO customers (customer_id, full_name, email, password, address, contact_number, created_at, updated_at) " +
@@ -120,6 +110,15 @@ public class CustomerRepository {
         return customer;
     }
 
+    /**
+     * Update customer password hash
+     */
+    public boolean updatePassword(String customerId, String encodedPassword) {
+        String sql = "UPDATE customers SET password = ?, updated_at = ? WHERE customer_id = ?";
+        int rowsAffected = jdbcTemplate.update(sql, encodedPassword, LocalDateTime.now(), customerId);
+        return rowsAffected > 0;
+    }
+
     /**
      * Search customers by name with SQL injection prevention (case-insensitive)
      */
@@ -145,6 +144,26 @@ public class CustomerRepository {
         return count != null && count > 0;
     }
 
+    /**
+     * Check if a customer ID exists without loading the row
+     */
+    public boolean existsByCustomerId(String customerId) {
+        String sql = "SELECT 1 FROM customers WHERE customer_id = ?";
+        return !jdbcTemplate.queryForList(sql, Integer.class, customerId).isEmpty();
+    }
+
+    /**
+     * Stream every customer ID from the primary key index, fetchSize rows at a time
+     */
+    public void forEachCustomerId(int fetchSize, Consumer<String> consumer) {
+        String sql = "SELECT customer_id FROM customers";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getString("customer_id")));
+    }
+
     /**
      * Delete customer by ID
      */
@@ -0,0 +1,41 @@
+package com.grocery.ordering.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for the id_sequences table (hi/lo block allocation)
+ * Each call reserves a contiguous block of values for the calling node. The
+ * row lock is held only by its own short transaction, so allocating never
+ * waits on, or rolls back with, the business transaction that needed an ID.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Repository
+public class IdSequenceRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserve blockSize values of a sequence and return the first of them
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long allocateBlock(String sequenceName, int blockSize) {
+        Long first;
+        try {
+            first = jdbcTemplate.queryForObject(
+                "SELECT next_value FROM id_sequences WHERE sequence_name = ? FOR UPDATE", Long.class, sequenceName);
+        } catch (EmptyResultDataAccessException e) {
+            throw new RuntimeException("ID sequence not found: " + sequenceName);
+        }
+
+        jdbcTemplate.update("UPDATE id_sequences SET next_value = next_value + ? WHERE sequence_name = ?",
+                            blockSize, sequenceName);
+        return first;
+    }
+}
@@ -0,0 +1,94 @@
+package com.grocery.ordering.repository;
+
+import com.grocery.ordering.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Repository for OrderItem entity with JDBC implementation
+ * Implements SQL injection prevention using prepared statements
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Repository
+public class OrderItemRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final RowMapper<OrderItem> orderItemRowMapper = new OrderItemRowMapper();
+
+    /**
+     * Save all items of an order in one batch
+     */
+    public List<OrderItem> saveAll(Integer orderId, List<OrderItem> items) {
+        String sql = "INSERT INTO order_items (order_id, product_id, quantity, unit_price, line_amount) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+        List<Object[]> batchArgs = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            item.setOrderId(orderId);
+            batchArgs.add(new Object[]{
+                orderId,
+                item.getProductId(),
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getLineAmount()
+            });
+        }
+
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+        return items;
+    }
+
+    /**
+     * Find items of an order with product names
+     */
+    public List<OrderItem> findByOrderId(Integer orderId) {
+        String sql = "SELECT i.*, p.product_name FROM order_items i " +
+                    "LEFT JOIN products p ON i.product_id = p.product_id " +
+                    "WHERE i.order_id = ? ORDER BY i.order_item_id";
+        return jdbcTemplate.query(sql, orderItemRowMapper, orderId);
+    }
+
+    /**
+     * Find items of several orders with product names
+     */
+    public List<OrderItem> findByOrderIds(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT i.*, p.product_name FROM order_items i " +
+                    "LEFT JOIN products p ON i.product_id = p.product_id " +
+                    "WHERE i.order_id IN (" + String.join(", ", Collections.nCopies(orderIds.size(), "?")) + ") " +
+                    "ORDER BY i.order_id, i.order_item_id";
+        return jdbcTemplate.query(sql, orderItemRowMapper, orderIds.toArray());
+    }
+
+    /**
+     * Row mapper for OrderItem entity
+     */
+    private static class OrderItemRowMapper implements RowMapper<OrderItem> {
+        @Override
+        public OrderItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            OrderItem item = new OrderItem();
+            item.setOrderItemId(rs.getInt("order_item_id"));
+            item.setOrderId(rs.getInt("order_id"));
+            item.setProductId(rs.getInt("product_id"));
+            item.setQuantity(rs.getInt("quantity"));
+            item.setUnitPrice(rs.getBigDecimal("unit_price"));
+            item.setLineAmount(rs.getBigDecimal("line_amount"));
+            item.setProductName(rs.getString("product_name"));
+            return item;
+        }
+    }
+}
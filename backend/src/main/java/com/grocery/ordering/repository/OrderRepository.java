@@ -1,22 +1,32 @@
 package com.grocery.ordering.repository;
 
+import com.grocery.ordering.dto.OrderCursor;
 import com.grocery.ordering.model.Order;
 import com.grocery.ordering.model.Order.OrderStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Repository for Order entity with JDBC implementation
@@ -30,6 +40,35 @@ public class OrderRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    private static final String INSERT_SQL = "INSERT INTO orders (customer_id, product_id, order_date, order_amount, " +
+                    "quantity_ordered, status, reservation_applied) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // The order query set; QueryPlanVerifier checks the listing pages (pageQuery), the customer
+    // summary view and the expiry query against the schema's indexes at startup
+    static final String FIND_BY_CUSTOMER_SQL = "SELECT o.*, c.full_name as customer_name, p.product_name " +
+                    "FROM orders o " +
+                    "JOIN customers c ON o.customer_id = c.customer_id " +
+                    "LEFT JOIN products p ON o.product_id = p.product_id " +
+                    "WHERE o.customer_id = ? " +
+                    "ORDER BY o.order_date DESC, o.order_id DESC";
+    static final String CUSTOMER_ORDER_DETAILS_SQL =
+                    "SELECT * FROM customer_order_summary WHERE customer_id = ? ORDER BY order_date DESC, order_id DESC";
+    static final String FIND_BY_STATUS_SQL = "SELECT o.*, c.full_name as customer_name, p.product_name " +
+                    "FROM orders o " +
+                    "JOIN customers c ON o.customer_id = c.customer_id " +
+                    "LEFT JOIN products p ON o.product_id = p.product_id " +
+                    "WHERE o.status = ? " +
+                    "ORDER BY o.order_date DESC, o.order_id DESC";
+    static final String FIND_BY_DATE_RANGE_SQL = "SELECT o.*, c.full_name as customer_name, p.product_name " +
+                    "FROM orders o " +
+                    "JOIN customers c ON o.customer_id = c.customer_id " +
+                    "LEFT JOIN products p ON o.product_id = p.product_id " +
+                    "WHERE o.order_date BETWEEN ? AND ? " +
+                    "ORDER BY o.order_date DESC, o.order_id DESC";
+    static final String FIND_EXPIRED_SQL = "SELECT order_id FROM orders " +
+                    "WHERE status = ? AND order_date < ? " +
+                    "ORDER BY order_date, order_id LIMIT ?";
+
     private final RowMapper<Order> orderRowMapper = new OrderRowMapper();
     private final RowMapper<Order> orderDetailRowMapper = new OrderDetailRowMapper();
 
@@ -37,26 +76,20 @@ public class OrderRepository {
      * Save order with SQL injection prevention
      */
     public Order save(Order order) {
-        String sql = "INSERT INTO orders (customer_id, product_id, order_date, order_amount, quantity_ordered, status) " +
-                    "VALUES (?, ?, ?, ?, ?, ?)";
-        
-        if (order.getOrderDate() == null) {
-            order.setOrderDate(LocalDateTime.now());
-        }
-        if (order.getStatus() == null) {
-            order.setStatus(OrderStatus.PENDING);
-        }
+        return save(order, true);
+    }
+
+    /**
+     * Save order, recording whether its reservation is already applied to products.reserved
+     */
+    public Order save(Order order, boolean reservationApplied) {
+        applyDefaults(order);
         
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, order.getCustomerId());
-            ps.setInt(2, order.getProductId());
-            ps.setObject(3, order.getOrderDate());
-            ps.setBigDecimal(4, order.getOrderAmount());
-            ps.setInt(5, order.getQuantityOrdered());
-            ps.setString(6, order.getStatus().getValue());
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"order_id"});
+            bindInsert(ps, order, reservationApplied);
             return ps;
         }, keyHolder);
         
@@ -67,6 +100,56 @@ public class OrderRepository {
         return order;
     }
 
+    /**
+     * Save several orders with one batched INSERT, assigning their generated IDs
+     */
+    public List<Order> saveAll(List<Order> orders, boolean reservationApplied) {
+        orders.forEach(OrderRepository::applyDefaults);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"order_id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    bindInsert(ps, orders.get(i), reservationApplied);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return orders.size();
+                }
+            }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != orders.size()) {
+            throw new RuntimeException("Expected " + orders.size() + " generated order IDs, got " + keys.size());
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setOrderId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+        return orders;
+    }
+
+    private static void applyDefaults(Order order) {
+        if (order.getOrderDate() == null) {
+            order.setOrderDate(LocalDateTime.now());
+        }
+        if (order.getStatus() == null) {
+            order.setStatus(OrderStatus.PENDING);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement ps, Order order, boolean reservationApplied) throws SQLException {
+        ps.setString(1, order.getCustomerId());
+        ps.setObject(2, order.getProductId(), Types.INTEGER);
+        ps.setObject(3, order.getOrderDate());
+        ps.setBigDecimal(4, order.getOrderAmount());
+        ps.setInt(5, order.getQuantityOrdered());
+        ps.setString(6, order.getStatus().getValue());
+        ps.setBoolean(7, reservationApplied);
+    }
+
     /**
      * Find order by ID with SQL injection prevention
      */
@@ -84,21 +167,14 @@ public class OrderRepository {
      * Find orders by customer ID with SQL injection prevention
      */
     public List<Order> findByCustomerId(String customerId) {
-        String sql = "SELECT o.*, c.full_name as customer_name, p.product_name " +
-                    "FROM orders o " +
-                    "JOIN customers c ON o.customer_id = c.customer_id " +
-                    "JOIN products p ON o.product_id = p.product_id " +
-                    "WHERE o.customer_id = ? " +
-                    "ORDER BY o.order_date DESC";
-        return jdbcTemplate.query(sql, orderDetailRowMapper, customerId);
+        return jdbcTemplate.query(FIND_BY_CUSTOMER_SQL, orderDetailRowMapper, customerId);
     }
 
     /**
      * Get customer order details with full information
      */
     public List<Order> getCustomerOrderDetails(String customerId) {
-        String sql = "SELECT * FROM customer_order_summary WHERE customer_id = ? ORDER BY order_date DESC";
-        return jdbcTemplate.query(sql, orderDetailRowMapper, customerId);
+        return jdbcTemplate.query(CUSTOMER_ORDER_DETAILS_SQL, orderDetailRowMapper, customerId);
     }
 
     /**
@@ -108,11 +184,83 @@ public class OrderRepository {
         String sql = "SELECT o.*, c.full_name as customer_name, p.product_name " +
                     "FROM orders o " +
                     "JOIN customers c ON o.customer_id = c.customer_id " +
-                    "JOIN products p ON o.product_id = p.product_id " +
+                    "LEFT JOIN products p ON o.product_id = p.product_id " +
                     "ORDER BY o.order_date DESC";
         return jdbcTemplate.query(sql, orderDetailRowMapper);
     }
 
+    /**
+     * Find one page of orders with details, newest first, starting after the given cursor
+     */
+    public List<Order> findPageWithDetails(OrderFilter filter, OrderCursor after, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = pageQuery(filter, after, limit, params);
+        return jdbcTemplate.query(sql, orderDetailRowMapper, params.toArray());
+    }
+
+    /**
+     * SQL of one keyset page of orders with details, adding its parameters to params
+     */
+    static String pageQuery(OrderFilter filter, OrderCursor after, int limit, List<Object> params) {
+        StringBuilder sql = new StringBuilder(detailQuery(filter, params));
+        if (after != null) {
+            sql.append(params.isEmpty() ? " WHERE " : " AND ")
+               .append("(o.order_date < ? OR (o.order_date = ? AND o.order_id < ?))");
+            params.add(after.getOrderDate());
+            params.add(after.getOrderDate());
+            params.add(after.getOrderId());
+        }
+        sql.append(" ORDER BY o.order_date DESC, o.order_id DESC LIMIT ?");
+        params.add(limit);
+        return sql.toString();
+    }
+
+    /**
+     * Stream orders with details, newest first, without materialising the result
+     * Rows are fetched from the database fetchSize at a time.
+     */
+    public void streamWithDetails(OrderFilter filter, int fetchSize, Consumer<Order> consumer) {
+        List<Object> params = new ArrayList<>();
+        String sql = detailQuery(filter, params) + " ORDER BY o.order_date DESC, o.order_id DESC";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(orderDetailRowMapper.mapRow(rs, rs.getRow())));
+    }
+
+    private static String detailQuery(OrderFilter filter, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT o.*, c.full_name as customer_name, p.product_name " +
+                    "FROM orders o " +
+                    "JOIN customers c ON o.customer_id = c.customer_id " +
+                    "LEFT JOIN products p ON o.product_id = p.product_id");
+        List<String> conditions = new ArrayList<>();
+        if (filter.getCustomerId() != null) {
+            conditions.add("o.customer_id = ?");
+            params.add(filter.getCustomerId());
+        }
+        if (filter.getStatus() != null) {
+            conditions.add("o.status = ?");
+            params.add(filter.getStatus().getValue());
+        }
+        if (filter.getStartDate() != null) {
+            conditions.add("o.order_date >= ?");
+            params.add(filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            conditions.add("o.order_date <= ?");
+            params.add(filter.getEndDate());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        return sql.toString();
+    }
+
     /**
      * Update order status with SQL injection prevention
      */
@@ -122,30 +270,82 @@ public class OrderRepository {
         return rowsAffected > 0;
     }
 
+    /**
+     * Change the status of an order only if it still has the expected status
+     */
+    public boolean updateOrderStatus(Integer orderId, OrderStatus expectedStatus, OrderStatus status) {
+        String sql = "UPDATE orders SET status = ? WHERE order_id = ? AND status = ?";
+        int rowsAffected = jdbcTemplate.update(sql, status.getValue(), orderId, expectedStatus.getValue());
+        return rowsAffected > 0;
+    }
+
     /**
      * Find orders by status
      */
     public List<Order> findByStatus(OrderStatus status) {
-        String sql = "SELECT o.*, c.full_name as customer_name, p.product_name " +
-                    "FROM orders o " +
-                    "JOIN customers c ON o.customer_id = c.customer_id " +
-                    "JOIN products p ON o.product_id = p.product_id " +
-                    "WHERE o.status = ? " +
-                    "ORDER BY o.order_date DESC";
-        return jdbcTemplate.query(sql, orderDetailRowMapper, status.getValue());
+        return jdbcTemplate.query(FIND_BY_STATUS_SQL, orderDetailRowMapper, status.getValue());
     }
 
     /**
      * Find orders by date range
      */
     public List<Order> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        String sql = "SELECT o.*, c.full_name as customer_name, p.product_name " +
+        return jdbcTemplate.query(FIND_BY_DATE_RANGE_SQL, orderDetailRowMapper, startDate, endDate);
+    }
+
+    /**
+     * Count orders and sum their amounts per status in one aggregate query
+     */
+    public Map<OrderStatus, StatusTotals> getStatusTotals() {
+        String sql = "SELECT status, COUNT(*) AS order_count, COALESCE(SUM(order_amount), 0) AS total_amount " +
+                    "FROM orders GROUP BY status";
+        Map<OrderStatus, StatusTotals> totals = new EnumMap<>(OrderStatus.class);
+        jdbcTemplate.query(sql, rs -> {
+            totals.put(OrderStatus.fromString(rs.getString("status")),
+                       new StatusTotals(rs.getLong("order_count"), rs.getBigDecimal("total_amount")));
+        });
+        return totals;
+    }
+
+    /**
+     * Stream every order with its customer's name in order ID order, fetchSize rows at a time
+     */
+    public void forEachOrderFact(int fetchSize, OrderFactHandler handler) {
+        String sql = "SELECT o.order_id, o.customer_id, c.full_name AS customer_name, o.order_date, " +
+                    "o.order_amount, o.quantity_ordered, o.status " +
                     "FROM orders o " +
                     "JOIN customers c ON o.customer_id = c.customer_id " +
-                    "JOIN products p ON o.product_id = p.product_id " +
-                    "WHERE o.order_date BETWEEN ? AND ? " +
-                    "ORDER BY o.order_date DESC";
-        return jdbcTemplate.query(sql, orderDetailRowMapper, startDate, endDate);
+                    "ORDER BY o.order_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getInt("order_id"), rs.getString("customer_id"),
+                                                     rs.getString("customer_name"),
+                                                     rs.getTimestamp("order_date").toLocalDateTime(),
+                                                     rs.getBigDecimal("order_amount"), rs.getInt("quantity_ordered"),
+                                                     OrderStatus.fromString(rs.getString("status"))));
+    }
+
+    /**
+     * Stream the product lines of every order in order ID order, fetchSize rows at a time
+     * A single-product order is one line; a cart order has one per order item.
+     */
+    public void forEachOrderLine(int fetchSize, OrderLineHandler handler) {
+        String sql = "SELECT l.order_id, l.product_id, p.product_name, l.quantity, l.line_amount " +
+                    "FROM (SELECT order_id, product_id, quantity_ordered AS quantity, order_amount AS line_amount " +
+                    "FROM orders WHERE product_id IS NOT NULL " +
+                    "UNION ALL " +
+                    "SELECT order_id, product_id, quantity, line_amount FROM order_items) l " +
+                    "LEFT JOIN products p ON l.product_id = p.product_id " +
+                    "ORDER BY l.order_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getInt("order_id"), rs.getInt("product_id"),
+                                                     rs.getString("product_name"), rs.getInt("quantity"),
+                                                     rs.getBigDecimal("line_amount")));
     }
 
     /**
@@ -166,6 +366,180 @@ public class OrderRepository {
         return count != null && count > 0;
     }
 
+    /**
+     * Mark a deferred reservation as applied without flushing it
+     * Returns false when the reservation had already been applied to products.reserved
+     */
+    public boolean claimDeferredReservation(Integer orderId) {
+        String sql = "UPDATE orders SET reservation_applied = TRUE WHERE order_id = ? AND reservation_applied = FALSE";
+        int rowsAffected = jdbcTemplate.update(sql, orderId);
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Find orders whose reservations have not been applied to products.reserved
+     */
+    public List<Integer> findDeferredReservationOrderIds() {
+        String sql = "SELECT order_id FROM orders WHERE reservation_applied = FALSE ORDER BY order_id";
+        return jdbcTemplate.queryForList(sql, Integer.class);
+    }
+
+    /**
+     * Lock unapplied orders and sum their reserved quantity per product, including cart items
+     */
+    public Map<Integer, Integer> lockDeferredReservations(List<Integer> orderIds) {
+        String sql = "SELECT COALESCE(i.product_id, o.product_id) AS product_id, " +
+                    "COALESCE(i.quantity, o.quantity_ordered) AS quantity " +
+                    "FROM orders o LEFT JOIN order_items i ON i.order_id = o.order_id " +
+                    "WHERE o.order_id IN (" + placeholders(orderIds.size()) + ") AND o.reservation_applied = FALSE " +
+                    "ORDER BY o.order_id FOR UPDATE";
+
+        // Sorted by product so concurrent flushes lock product rows in the same order
+        Map<Integer, Integer> reservedByProduct = new TreeMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            reservedByProduct.merge(rs.getInt("product_id"), rs.getInt("quantity"), Integer::sum);
+        }, orderIds.toArray());
+        return reservedByProduct;
+    }
+
+    /**
+     * Mark orders' reservations as applied to products.reserved
+     */
+    public int markReservationsApplied(List<Integer> orderIds) {
+        String sql = "UPDATE orders SET reservation_applied = TRUE WHERE order_id IN (" + placeholders(orderIds.size()) + ")";
+        return jdbcTemplate.update(sql, orderIds.toArray());
+    }
+
+    /**
+     * Lock the oldest orders placed before a cutoff that still have a status, skipping rows locked by others
+     * Served by idx_orders_status_date; callers should run at READ COMMITTED so
+     * no gap locks are taken ahead of the orders being placed.
+     */
+    public List<Integer> lockExpiredOrders(OrderStatus status, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(FIND_EXPIRED_SQL + " FOR UPDATE SKIP LOCKED", Integer.class,
+                                         status.getValue(), cutoff, limit);
+    }
+
+    /**
+     * Sum the quantities reserved by orders per product, including cart items
+     */
+    public ReservedQuantities findReservedQuantities(List<Integer> orderIds) {
+        String sql = "SELECT COALESCE(i.product_id, o.product_id) AS product_id, o.reservation_applied, " +
+                    "SUM(COALESCE(i.quantity, o.quantity_ordered)) AS quantity " +
+                    "FROM orders o LEFT JOIN order_items i ON i.order_id = o.order_id " +
+                    "WHERE o.order_id IN (" + placeholders(orderIds.size()) + ") " +
+                    "GROUP BY COALESCE(i.product_id, o.product_id), o.reservation_applied";
+
+        ReservedQuantities quantities = new ReservedQuantities();
+        jdbcTemplate.query(sql, rs -> {
+            int productId = rs.getInt("product_id");
+            int quantity = rs.getInt("quantity");
+            quantities.reservedByProduct.merge(productId, quantity, Integer::sum);
+            if (rs.getBoolean("reservation_applied")) {
+                quantities.appliedByProduct.merge(productId, quantity, Integer::sum);
+            }
+        }, orderIds.toArray());
+        return quantities;
+    }
+
+    /**
+     * Cancel orders that still have a status, claiming their deferred reservations at the same time
+     */
+    public int cancelOrders(List<Integer> orderIds, OrderStatus expectedStatus) {
+        String sql = "UPDATE orders SET status = ?, reservation_applied = TRUE " +
+                    "WHERE order_id IN (" + placeholders(orderIds.size()) + ") AND status = ?";
+        List<Object> params = new ArrayList<>(orderIds.size() + 2);
+        params.add(OrderStatus.CANCELLED.getValue());
+        params.addAll(orderIds);
+        params.add(expectedStatus.getValue());
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Order count and amount for one status
+     */
+    public static class StatusTotals {
+        private final long count;
+        private final BigDecimal amount;
+
+        public StatusTotals(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+
+        public long getCount() { return count; }
+        public BigDecimal getAmount() { return amount; }
+    }
+
+    /**
+     * Quantities reserved by a set of orders, sorted by product
+     * reservedByProduct is everything the orders reserved, appliedByProduct the
+     * part already folded into products.reserved.
+     */
+    public static class ReservedQuantities {
+        private final Map<Integer, Integer> reservedByProduct = new TreeMap<>();
+        private final Map<Integer, Integer> appliedByProduct = new TreeMap<>();
+
+        public Map<Integer, Integer> getReservedByProduct() { return reservedByProduct; }
+        public Map<Integer, Integer> getAppliedByProduct() { return appliedByProduct; }
+    }
+
+    /**
+     * Receives one order of {@link #forEachOrderFact}
+     */
+    @FunctionalInterface
+    public interface OrderFactHandler {
+        void accept(int orderId, String customerId, String customerName, LocalDateTime orderDate,
+                    BigDecimal orderAmount, int quantity, OrderStatus status);
+    }
+
+    /**
+     * Receives one product line of {@link #forEachOrderLine}
+     */
+    @FunctionalInterface
+    public interface OrderLineHandler {
+        void accept(int orderId, int productId, String productName, int quantity, BigDecimal lineAmount);
+    }
+
+    /**
+     * Optional criteria for order listings
+     */
+    public static class OrderFilter {
+        private String customerId;
+        private OrderStatus status;
+        private LocalDateTime startDate;
+        private LocalDateTime endDate;
+
+        public static OrderFilter all() {
+            return new OrderFilter();
+        }
+
+        public OrderFilter customerId(String customerId) {
+            this.customerId = customerId;
+            return this;
+        }
+
+        public OrderFilter status(OrderStatus status) {
+            this.status = status;
+            return this;
+        }
+
+        public OrderFilter between(LocalDateTime startDate, LocalDateTime endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            return this;
+        }
+
+        public String getCustomerId() { return customerId; }
+        public OrderStatus getStatus() { return status; }
+        public LocalDateTime getStartDate() { return startDate; }
+        public LocalDateTime getEndDate() { return endDate; }
+    }
+
     /**
      * Row mapper for Order entity
      */
@@ -175,7 +549,8 @@ public class OrderRepository {
             Order order = new Order();
             order.setOrderId(rs.getInt("order_id"));
             order.setCustomerId(rs.getString("customer_id"));
-            order.setProductId(rs.getInt("product_id"));
+            int productId = rs.getInt("product_id");
+            order.setProductId(rs.wasNull() ? null : productId);
             order.setOrderAmount(rs.getBigDecimal("order_amount"));
             order.setQuantityOrdered(rs.getInt("quantity_ordered"));
             
@@ -197,13 +572,14 @@ public class OrderRepository {
     /**
      * Row mapper for Order entity with customer and product details
      */
-    private static class OrderDetailRowMapper implements RowMapper<Order> {
+    static class OrderDetailRowMapper implements RowMapper<Order> {
         @Override
         public Order mapRow(ResultSet rs, int rowNum) throws SQLException {
             Order order = new Order();
             order.setOrderId(rs.getInt("order_id"));
             order.setCustomerId(rs.getString("customer_id"));
-            order.setProductId(rs.getInt("product_id"));
+            int productId = rs.getInt("product_id");
+            order.setProductId(rs.wasNull() ? null : productId);
             order.setOrderAmount(rs.getBigDecimal("order_amount"));
             order.setQuantityOrdered(rs.getInt("quantity_ordered"));
             
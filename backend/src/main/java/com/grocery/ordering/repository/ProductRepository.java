@@ -1,21 +1,28 @@
 package com.grocery.ordering.repository;
 
 import com.grocery.ordering.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,8 +37,20 @@ public class ProductRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private final RowMapper<Product> productRowMapper = new ProductRowMapper();
 
+    private Counter reservationsAccepted;
+    private Counter reservationsRejected;
+
+    @PostConstruct
+    public void init() {
+        reservationsAccepted = reservationCounter("accepted");
+        reservationsRejected = reservationCounter("rejected");
+    }
+
     /**
      * Save product with SQL injection prevention
      */
@@ -46,7 +65,7 @@ public class ProductRepository {
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"product_id"});
             ps.setString(1, product.getProductName());
             ps.setBigDecimal(2, product.getPrice());
             ps.setInt(3, product.getQuantity());
@@ -77,8 +96,23 @@ public class ProductRepository {
         }
     }
 
+    /**
+     * Find a product and lock its row until the transaction ends
+     */
+    public Optional<Product> findByIdForUpdate(Integer productId) {
+        String sql = "SELECT * FROM products WHERE product_id = ? FOR UPDATE";
+        try {
+            Product product = jdbcTemplate.queryForObject(sql, productRowMapper, productId);
+            return Optional.ofNullable(product);
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Update product with SQL injection prevention
+     * Writes every column, reserved included, so read the product with
+     * findByIdForUpdate first or a concurrent reservation is overwritten.
      */
     public Product update(Product product) {
         String sql = "UPDATE products SET product_name = ?, price = ?, quantity = ?, reserved = ?, customer_id = ?, updated_at = ? " +
@@ -102,6 +136,85 @@ public class ProductRepository {
         return product;
     }
 
+    /**
+     * Find several products by ID in one query
+     */
+    public List<Product> findAllByIds(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT * FROM products WHERE product_id IN (" + placeholders(productIds.size()) + ")";
+        return jdbcTemplate.query(sql, productRowMapper, productIds.toArray());
+    }
+
+    /**
+     * Find and lock several products by ID until the current transaction ends
+     */
+    public List<Product> findAllByIdsForUpdate(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT * FROM products WHERE product_id IN (" + placeholders(productIds.size()) + ") FOR UPDATE";
+        return jdbcTemplate.query(sql, productRowMapper, productIds.toArray());
+    }
+
+    /**
+     * Save several products with one batched INSERT, assigning their generated IDs
+     */
+    public List<Product> saveAll(List<Product> products) {
+        String sql = "INSERT INTO products (product_name, price, quantity, reserved, customer_id, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"product_id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Product product = products.get(i);
+                    product.setCreatedAt(now);
+                    product.setUpdatedAt(now);
+                    ps.setString(1, product.getProductName());
+                    ps.setBigDecimal(2, product.getPrice());
+                    ps.setInt(3, product.getQuantity());
+                    ps.setInt(4, product.getReserved() != null ? product.getReserved() : 0);
+                    ps.setString(5, product.getCustomerId());
+                    ps.setObject(6, now);
+                    ps.setObject(7, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return products.size();
+                }
+            }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != products.size()) {
+            throw new RuntimeException("Expected " + products.size() + " generated product IDs, got " + keys.size());
+        }
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setProductId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+        return products;
+    }
+
+    /**
+     * Update several products with one batched UPDATE
+     */
+    public void updateAll(List<Product> products) {
+        String sql = "UPDATE products SET product_name = ?, price = ?, quantity = ?, reserved = ?, customer_id = ?, updated_at = ? " +
+                    "WHERE product_id = ?";
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = new ArrayList<>(products.size());
+        for (Product product : products) {
+            product.setUpdatedAt(now);
+            batchArgs.add(new Object[]{product.getProductName(), product.getPrice(), product.getQuantity(),
+                                       product.getReserved(), product.getCustomerId(), now, product.getProductId()});
+        }
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
     /**
      * Search products by name with SQL injection prevention (case-insensitive)
      */
@@ -159,9 +272,36 @@ public class ProductRepository {
     public boolean reserveQuantity(Integer productId, Integer quantityToReserve) {
         String sql = "UPDATE products SET reserved = reserved + ?, updated_at = ? WHERE product_id = ? AND (quantity - reserved) >= ?";
         int rowsAffected = jdbcTemplate.update(sql, quantityToReserve, LocalDateTime.now(), productId, quantityToReserve);
+        (rowsAffected > 0 ? reservationsAccepted : reservationsRejected).increment();
         return rowsAffected > 0;
     }
 
+    /**
+     * Reserve stock for an order in one conditional UPDATE that also checks the customer
+     * The affected row count is authoritative: 0 means the customer or the
+     * product does not exist, or the product has too little unreserved stock.
+     */
+    public boolean reserveQuantityForCustomer(String customerId, Integer productId, int quantityToReserve) {
+        String sql = "UPDATE products SET reserved = reserved + ?, updated_at = ? " +
+                    "WHERE product_id = ? AND (quantity - reserved) >= ? " +
+                    "AND EXISTS (SELECT 1 FROM customers WHERE customer_id = ?)";
+        int rowsAffected = jdbcTemplate.update(sql, quantityToReserve, LocalDateTime.now(), productId,
+                                               quantityToReserve, customerId);
+        (rowsAffected > 0 ? reservationsAccepted : reservationsRejected).increment();
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Whether the customer exists and how much of the product is unreserved, in one query
+     * Only used to explain a rejected order.
+     */
+    public AdmissionState findAdmissionState(String customerId, Integer productId) {
+        String sql = "SELECT (SELECT COUNT(*) FROM customers WHERE customer_id = ?) AS customer_count, " +
+                    "(SELECT quantity - reserved FROM products WHERE product_id = ?) AS available";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new AdmissionState(
+            rs.getInt("customer_count") > 0, rs.getObject("available", Integer.class)), customerId, productId);
+    }
+
     /**
      * Release reserved quantity
      */
@@ -171,10 +311,107 @@ public class ProductRepository {
         return rowsAffected > 0;
     }
 
+    /**
+     * Reserve quantities for several products in one batch
+     * Returns the IDs of products that did not have enough quantity; the caller rolls back.
+     */
+    public List<Integer> reserveQuantities(Map<Integer, Integer> quantitiesByProduct) {
+        String sql = "UPDATE products SET reserved = reserved + ?, updated_at = ? WHERE product_id = ? AND (quantity - reserved) >= ?";
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> productIds = new ArrayList<>(quantitiesByProduct.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(productIds.size());
+        for (Integer productId : productIds) {
+            Integer quantity = quantitiesByProduct.get(productId);
+            batchArgs.add(new Object[]{quantity, now, productId, quantity});
+        }
+
+        int[] rowsAffected = jdbcTemplate.batchUpdate(sql, batchArgs);
+        List<Integer> rejected = new ArrayList<>();
+        for (int i = 0; i < rowsAffected.length; i++) {
+            if (rowsAffected[i] == 0) {
+                rejected.add(productIds.get(i));
+            }
+        }
+        reservationsAccepted.increment(rowsAffected.length - rejected.size());
+        reservationsRejected.increment(rejected.size());
+        return rejected;
+    }
+
+    /**
+     * Release reserved quantities for several products in one batch
+     */
+    public void releaseReservedQuantities(Map<Integer, Integer> quantitiesByProduct) {
+        String sql = "UPDATE products SET reserved = GREATEST(0, reserved - ?), updated_at = ? WHERE product_id = ?";
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesByProduct.size());
+        quantitiesByProduct.forEach((productId, quantity) -> batchArgs.add(new Object[]{quantity, now, productId}));
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
+    /**
+     * Get the quantity that can still be reserved, counting orders not yet applied to reserved
+     */
+    public Optional<Integer> findReservableQuantity(Integer productId) {
+        String sql = "SELECT p.quantity - p.reserved - COALESCE(" +
+                    "(SELECT SUM(o.quantity_ordered) FROM orders o " +
+                    "WHERE o.product_id = p.product_id AND o.reservation_applied = FALSE), 0) - COALESCE(" +
+                    "(SELECT SUM(i.quantity) FROM order_items i JOIN orders o ON i.order_id = o.order_id " +
+                    "WHERE i.product_id = p.product_id AND o.reservation_applied = FALSE), 0) " +
+                    "FROM products p WHERE p.product_id = ?";
+        try {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(sql, Integer.class, productId));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Add reserved quantities for several products in one batch
+     */
+    public void addReservedQuantities(Map<Integer, Integer> reservedByProduct) {
+        String sql = "UPDATE products SET reserved = reserved + ?, updated_at = ? WHERE product_id = ?";
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = new ArrayList<>(reservedByProduct.size());
+        reservedByProduct.forEach((productId, quantity) -> batchArgs.add(new Object[]{quantity, now, productId}));
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Conditional stock updates in the products table, by outcome
+     */
+    private Counter reservationCounter(String outcome) {
+        return Counter.builder("inventory.reservations")
+            .description("Stock reservations by where they were decided and their outcome")
+            .tag("source", "database")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Customer and product state behind a rejected order
+     */
+    public static class AdmissionState {
+        private final boolean customerExists;
+        private final Integer availableQuantity;
+
+        public AdmissionState(boolean customerExists, Integer availableQuantity) {
+            this.customerExists = customerExists;
+            this.availableQuantity = availableQuantity;
+        }
+
+        public boolean isCustomerExists() { return customerExists; }
+        public boolean isProductExists() { return availableQuantity != null; }
+        public Integer getAvailableQuantity() { return availableQuantity; }
+    }
+
     /**
      * Row mapper for Product entity
      */
-    private static class ProductRowMapper implements RowMapper<Product> {
+    static class ProductRowMapper implements RowMapper<Product> {
         @Override
         public Product mapRow(ResultSet rs, int rowNum) throws SQLException {
             Product product = new Product();
@@ -0,0 +1,124 @@
+package com.grocery.ordering.repository;
+
+import com.grocery.ordering.dto.OrderCursor;
+import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.repository.OrderRepository.OrderFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Startup regression check of the order query plans (MySQL only)
+ * The keyset pages behind the order listings (all orders, by customer, by
+ * status and by date range, each past a cursor), the customer order summary
+ * and the expiry query are run through EXPLAIN with typical parameters.
+ * Startup fails when a table is read with a full scan although no index
+ * could serve it, or when the full scan would read at least
+ * app.database.plan-check.min-rows rows; small tables are scanned whatever
+ * the indexes, so they only fail the check when an index is missing.
+ *
+ * The row estimate depends on how much data the database holds, so the
+ * check is off unless app.database.plan-check.enabled=true; turn it on in a
+ * staging environment with production-sized data.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class QueryPlanVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.database.plan-check.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.database.plan-check.min-rows:1000}")
+    private long minRows;
+
+    @PostConstruct
+    public void verify() {
+        if (!enabled) {
+            return;
+        }
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (product == null || !product.toLowerCase(Locale.ROOT).contains("mysql")) {
+            logger.info("Skipping the query plan check on {}", product);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        OrderCursor cursor = new OrderCursor(now.minusHours(1), Integer.MAX_VALUE);
+        Map<String, Object[]> queries = new LinkedHashMap<>();
+        queries.put("ordersPage", page(OrderFilter.all(), cursor));
+        queries.put("customerOrdersPage", page(OrderFilter.all().customerId("CUS0000001"), cursor));
+        queries.put("ordersByStatusPage", page(OrderFilter.all().status(OrderStatus.PENDING), cursor));
+        queries.put("ordersByDateRangePage", page(OrderFilter.all().between(now.minusDays(1), now), cursor));
+        queries.put("getCustomerOrderDetails", new Object[]{OrderRepository.CUSTOMER_ORDER_DETAILS_SQL, "CUS0000001"});
+        queries.put("lockExpiredOrders", new Object[]{OrderRepository.FIND_EXPIRED_SQL, "PENDING", now.minusDays(1), 200});
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Object[]> query : queries.entrySet()) {
+            Object[] sqlAndParams = query.getValue();
+            Object[] params = new Object[sqlAndParams.length - 1];
+            System.arraycopy(sqlAndParams, 1, params, 0, params.length);
+
+            for (Map<String, Object> step : jdbcTemplate.queryForList("EXPLAIN " + sqlAndParams[0], params)) {
+                logger.debug("{}: {}", query.getKey(), step);
+                String failure = checkStep(step);
+                if (failure != null) {
+                    failures.add(query.getKey() + " " + failure);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new RuntimeException("Order queries fall back to full table scans: " + String.join("; ", failures));
+        }
+        logger.info("Query plans of {} order queries use indexes", queries.size());
+    }
+
+    /**
+     * SQL and parameters of a listing page as the order endpoints request it
+     */
+    private static Object[] page(OrderFilter filter, OrderCursor cursor) {
+        List<Object> sqlAndParams = new ArrayList<>();
+        String sql = OrderRepository.pageQuery(filter, cursor, 51, sqlAndParams);
+        sqlAndParams.add(0, sql);
+        return sqlAndParams.toArray();
+    }
+
+    /**
+     * Reason an EXPLAIN row is a regression, or null if it is fine
+     */
+    private String checkStep(Map<String, Object> step) {
+        if (!"ALL".equals(step.get("type"))) {
+            return null;
+        }
+        Object table = step.get("table");
+        Object possibleKeys = step.get("possible_keys");
+        long rows = step.get("rows") instanceof Number number ? number.longValue() : 0;
+
+        if (possibleKeys == null) {
+            return "scans " + table + " with no usable index";
+        }
+        if (rows >= minRows) {
+            return "scans " + rows + " rows of " + table + " instead of using " + possibleKeys;
+        }
+        return null;
+    }
+}
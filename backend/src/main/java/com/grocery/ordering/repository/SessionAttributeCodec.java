@@ -0,0 +1,122 @@
+package com.grocery.ordering.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of session attributes
+ * The attributes the application stores (flags, user type and IDs) are
+ * written as tagged primitives, a few bytes each. Any other type is refused
+ * rather than Java-serialized, so bytes read back from user_sessions are
+ * never handed to ObjectInputStream; serialized values written by earlier
+ * versions are skipped.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+final class SessionAttributeCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN_TRUE = 2;
+    private static final byte BOOLEAN_FALSE = 3;
+    private static final byte INTEGER = 4;
+    private static final byte LONG = 5;
+    // Written by earlier versions only; skipped on read, never deserialized
+    private static final byte SERIALIZED = 6;
+
+    private static final Object SKIPPED = new Object();
+
+    private SessionAttributeCodec() {
+    }
+
+    static byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                out.writeUTF(attribute.getKey());
+                writeValue(out, attribute.getKey(), attribute.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Map<String, Object> decode(byte[] data) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (data == null || data.length == 0) {
+            return attributes;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unknown session encoding version " + version);
+            }
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                Object value = readValue(in);
+                if (value != SKIPPED) {
+                    attributes.put(name, value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return attributes;
+    }
+
+    private static void writeValue(DataOutputStream out, String name, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            out.writeUTF(string);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(flag ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else {
+            throw new IllegalArgumentException("Session attribute '" + name + "' of type " +
+                                               value.getClass().getName() + " cannot be stored; only strings, " +
+                                               "booleans, integers and longs can");
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case BOOLEAN_TRUE:
+                return Boolean.TRUE;
+            case BOOLEAN_FALSE:
+                return Boolean.FALSE;
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case SERIALIZED:
+                in.skipNBytes(in.readInt());
+                return SKIPPED;
+            default:
+                throw new IOException("Unknown session attribute tag " + tag);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.grocery.ordering.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HTTP sessions stored in the user_sessions table
+ * Any backend node can serve any session, so nodes need no sticky routing.
+ * Sessions read on this node are kept in a near cache and read again once
+ * the copy was loaded more than app.sessions.near-cache.ttl-ms ago, however
+ * often it is used, so a busy session costs at most one read per TTL; the
+ * last access time is only written back once it has moved by
+ * app.sessions.touch-interval-ms. A session removed on another node (logout)
+ * can therefore stay usable here for up to the TTL. A write-back that finds
+ * the row gone drops the session rather than bringing it back.
+ *
+ * Expired rows are deleted in batches through idx_sessions_expires.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Repository
+public class UserSessionRepository implements SessionRepository<UserSessionRepository.UserSession> {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSessionRepository.class);
+
+    // Latest instant a MySQL TIMESTAMP can hold, used for sessions that never expire
+    private static final Instant NEVER = Instant.parse("2038-01-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${server.servlet.session.timeout:30m}")
+    private Duration defaultMaxInactiveInterval;
+
+    @Value("${app.sessions.near-cache.ttl-ms:10000}")
+    private long nearCacheTtlMs;
+
+    @Value("${app.sessions.near-cache.maximum-size:100000}")
+    private long nearCacheMaximumSize;
+
+    @Value("${app.sessions.touch-interval-ms:60000}")
+    private long touchIntervalMs;
+
+    @Value("${app.sessions.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    private Cache<String, UserSession> nearCache;
+
+    @PostConstruct
+    public void init() {
+        nearCache = Caffeine.newBuilder()
+            .maximumSize(nearCacheMaximumSize)
+            .expireAfterWrite(Duration.ofMillis(nearCacheTtlMs))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "sessions");
+    }
+
+    @Override
+    public UserSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new UserSession(session, null, null);
+    }
+
+    @Override
+    public void save(UserSession session) {
+        boolean exists = true;
+        if (session.persistedId == null) {
+            insert(session);
+        } else {
+            if (!session.getId().equals(session.persistedId)) {
+                exists = jdbcTemplate.update("UPDATE user_sessions SET session_id = ? WHERE session_id = ?",
+                                             session.getId(), session.persistedId) > 0;
+                nearCache.invalidate(session.persistedId);
+                session.persistedId = session.getId();
+            }
+            if (exists && session.changed) {
+                exists = update(session);
+            } else if (exists && Duration.between(session.persistedAccessTime, session.getLastAccessedTime())
+                                     .toMillis() >= touchIntervalMs) {
+                exists = touch(session);
+            }
+        }
+        session.changed = false;
+        if (exists) {
+            nearCache.put(session.getId(), session.copy());
+        } else {
+            // Deleted meanwhile, e.g. by a logout on another node
+            nearCache.invalidate(session.getId());
+        }
+    }
+
+    @Override
+    public UserSession findById(String id) {
+        UserSession session = nearCache.getIfPresent(id);
+        if (session == null || System.nanoTime() - session.validatedAt > nearCacheTtlMs * 1_000_000) {
+            session = load(id);
+            if (session == null) {
+                nearCache.invalidate(id);
+                return null;
+            }
+            nearCache.put(id, session);
+        }
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session.copy();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        nearCache.invalidate(id);
+        jdbcTemplate.update("DELETE FROM user_sessions WHERE session_id = ?", id);
+    }
+
+    /**
+     * Delete expired sessions, a batch at a time so no delete holds many row locks
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.cleanup-interval-ms:60000}")
+    public void deleteExpiredSessions() {
+        Timestamp now = Timestamp.from(Instant.now());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM user_sessions WHERE expires_at < ? LIMIT ?",
+                                          now, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            logger.debug("Deleted {} expired sessions", total);
+        }
+    }
+
+    private UserSession load(String id) {
+        try {
+            return jdbcTemplate.queryForObject(
+                "SELECT created_at, last_accessed_at, max_inactive_seconds, attributes FROM user_sessions " +
+                "WHERE session_id = ? AND expires_at >= ?",
+                (rs, rowNum) -> {
+                    MapSession session = new MapSession(id);
+                    session.setCreationTime(rs.getTimestamp("created_at").toInstant());
+                    Instant lastAccessed = rs.getTimestamp("last_accessed_at").toInstant();
+                    session.setLastAccessedTime(lastAccessed);
+                    session.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+                    SessionAttributeCodec.decode(rs.getBytes("attributes")).forEach(session::setAttribute);
+                    return new UserSession(session, id, lastAccessed);
+                },
+                id, Timestamp.from(Instant.now()));
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    private void insert(UserSession session) {
+        jdbcTemplate.update("INSERT INTO user_sessions (session_id, user_id, user_type, created_at, expires_at, " +
+                            "last_accessed_at, max_inactive_seconds, attributes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                            session.getId(), userId(session), userType(session),
+                            Timestamp.from(session.getCreationTime()), Timestamp.from(expiresAt(session)),
+                            Timestamp.from(session.getLastAccessedTime()),
+                            (int) session.getMaxInactiveInterval().toSeconds(),
+                            SessionAttributeCodec.encode(session.attributes()));
+        session.persistedId = session.getId();
+        session.persistedAccessTime = session.getLastAccessedTime();
+        session.validatedAt = System.nanoTime();
+    }
+
+    /**
+     * Write the whole session back; false when its row no longer exists
+     */
+    private boolean update(UserSession session) {
+        int rowsAffected = jdbcTemplate.update("UPDATE user_sessions SET user_id = ?, user_type = ?, expires_at = ?, " +
+                            "last_accessed_at = ?, max_inactive_seconds = ?, attributes = ? WHERE session_id = ?",
+                            userId(session), userType(session), Timestamp.from(expiresAt(session)),
+                            Timestamp.from(session.getLastAccessedTime()),
+                            (int) session.getMaxInactiveInterval().toSeconds(),
+                            SessionAttributeCodec.encode(session.attributes()), session.getId());
+        return written(session, rowsAffected);
+    }
+
+    /**
+     * Write the last access time back; false when the session's row no longer exists
+     */
+    private boolean touch(UserSession session) {
+        int rowsAffected = jdbcTemplate.update(
+            "UPDATE user_sessions SET expires_at = ?, last_accessed_at = ? WHERE session_id = ?",
+            Timestamp.from(expiresAt(session)), Timestamp.from(session.getLastAccessedTime()), session.getId());
+        return written(session, rowsAffected);
+    }
+
+    private static boolean written(UserSession session, int rowsAffected) {
+        if (rowsAffected == 0) {
+            return false;
+        }
+        session.persistedAccessTime = session.getLastAccessedTime();
+        session.validatedAt = System.nanoTime();
+        return true;
+    }
+
+    private static Instant expiresAt(Session session) {
+        Duration maxInactive = session.getMaxInactiveInterval();
+        if (maxInactive.isNegative()) {
+            return NEVER;
+        }
+        Instant expiresAt = session.getLastAccessedTime().plus(maxInactive);
+        return expiresAt.isAfter(NEVER) ? NEVER : expiresAt;
+    }
+
+    /**
+     * Signed-in user of the session, kept in its own column for idx_sessions_user
+     */
+    private static String userId(Session session) {
+        Object customerId = session.getAttribute("customerId");
+        return customerId != null ? customerId.toString() : session.getAttribute("username");
+    }
+
+    private static String userType(Session session) {
+        Object userType = session.getAttribute("userType");
+        return "ADMIN".equals(userType) || "CUSTOMER".equals(userType) ? (String) userType : null;
+    }
+
+    /**
+     * Session backed by a MapSession that remembers what must be written back
+     */
+    public static final class UserSession implements Session {
+        private final MapSession delegate;
+        private String persistedId;
+        private Instant persistedAccessTime;
+        private boolean changed;
+
+        // System.nanoTime() when the row was last read or written
+        private long validatedAt = System.nanoTime();
+
+        UserSession(MapSession delegate, String persistedId, Instant persistedAccessTime) {
+            this.delegate = delegate;
+            this.persistedId = persistedId;
+            this.persistedAccessTime = persistedAccessTime;
+        }
+
+        UserSession copy() {
+            UserSession copy = new UserSession(new MapSession(delegate), persistedId, persistedAccessTime);
+            copy.validatedAt = validatedAt;
+            return copy;
+        }
+
+        Map<String, Object> attributes() {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (String name : delegate.getAttributeNames()) {
+                attributes.put(name, delegate.getAttribute(name));
+            }
+            return attributes;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changed = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changed = true;
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            changed = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.grocery.ordering.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Signs in a metrics scraper presenting the configured bearer token
+ * A request to the scrape endpoint with "Authorization: Bearer <token>" gets
+ * the METRICS role for that request only; nothing is stored in a session.
+ * Without a configured token the filter does nothing and only admins can
+ * read the metrics.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class MetricsScrapeTokenFilter extends OncePerRequestFilter {
+
+    public static final String ROLE = "METRICS";
+
+    private static final String BEARER = "Bearer ";
+
+    private final String scrapePath;
+    private final byte[] token;
+
+    public MetricsScrapeTokenFilter(String scrapePath, String token) {
+        this.scrapePath = scrapePath;
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return token == null || !scrapePath.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER) && MessageDigest.isEqual(token,
+                authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8))) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "metrics-scraper", null, AuthorityUtils.createAuthorityList("ROLE_" + ROLE)));
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+}
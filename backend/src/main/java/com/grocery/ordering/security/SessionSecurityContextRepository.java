@@ -0,0 +1,104 @@
+package com.grocery.ordering.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+/**
+ * Security context built from the session attributes set at login
+ * The context is resolved lazily, at most once per request, by the
+ * SecurityContextHolderFilter already in the filter chain: the URL rules of
+ * SecurityConfig and @AuthenticationPrincipal arguments then share one
+ * {@link UserPrincipal}. Nothing is written back; logging in and out only
+ * changes the session attributes.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class SessionSecurityContextRepository implements SecurityContextRepository {
+
+    private static final String PRINCIPAL_ATTRIBUTE = SessionSecurityContextRepository.class.getName() + ".PRINCIPAL";
+    private static final Object ANONYMOUS = new Object();
+
+    private final SecurityContextHolderStrategy securityContextHolderStrategy =
+        SecurityContextHolder.getContextHolderStrategy();
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new DeferredSecurityContext() {
+            private SecurityContext context;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    context = createContext(resolvePrincipal(request));
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                return get().getAuthentication() == null;
+            }
+        };
+    }
+
+    @Override
+    @Deprecated
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return createContext(resolvePrincipal(requestResponseHolder.getRequest()));
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        // The login endpoints store the session attributes themselves
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return resolvePrincipal(request) != null;
+    }
+
+    /**
+     * Principal of the request's session, or null if nobody is signed in
+     */
+    static UserPrincipal resolvePrincipal(HttpServletRequest request) {
+        Object resolved = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (resolved == null) {
+            UserPrincipal principal = fromSession(request.getSession(false));
+            resolved = principal != null ? principal : ANONYMOUS;
+            request.setAttribute(PRINCIPAL_ATTRIBUTE, resolved);
+        }
+        return resolved instanceof UserPrincipal principal ? principal : null;
+    }
+
+    private static UserPrincipal fromSession(HttpSession session) {
+        if (session == null || !Boolean.TRUE.equals(session.getAttribute("authenticated"))) {
+            return null;
+        }
+        Object userType = session.getAttribute("userType");
+        if (UserPrincipal.ADMIN.equals(userType) && session.getAttribute("username") instanceof String username) {
+            return UserPrincipal.admin(username);
+        }
+        if (UserPrincipal.CUSTOMER.equals(userType)
+                && session.getAttribute("customerId") instanceof String customerId) {
+            return UserPrincipal.customer(customerId);
+        }
+        return null;
+    }
+
+    private SecurityContext createContext(UserPrincipal principal) {
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        if (principal != null) {
+            context.setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+        }
+        return context;
+    }
+}
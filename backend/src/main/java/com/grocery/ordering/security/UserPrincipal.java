@@ -0,0 +1,77 @@
+package com.grocery.ordering.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Signed-in user of a request, resolved once from the session
+ * Controllers receive it with @AuthenticationPrincipal.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public final class UserPrincipal implements Principal {
+
+    public static final String ADMIN = "ADMIN";
+    public static final String CUSTOMER = "CUSTOMER";
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    private static final List<GrantedAuthority> CUSTOMER_AUTHORITIES =
+        List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
+
+    private final String userType;
+    private final String username;
+    private final String customerId;
+
+    private UserPrincipal(String userType, String username, String customerId) {
+        this.userType = userType;
+        this.username = username;
+        this.customerId = customerId;
+    }
+
+    public static UserPrincipal admin(String username) {
+        return new UserPrincipal(ADMIN, username, null);
+    }
+
+    public static UserPrincipal customer(String customerId) {
+        return new UserPrincipal(CUSTOMER, null, customerId);
+    }
+
+    /**
+     * Admin username or customer ID
+     */
+    @Override
+    public String getName() {
+        return isAdmin() ? username : customerId;
+    }
+
+    public String getUserType() { return userType; }
+    public String getUsername() { return username; }
+    public String getCustomerId() { return customerId; }
+
+    public boolean isAdmin() {
+        return ADMIN.equals(userType);
+    }
+
+    public boolean isCustomer() {
+        return CUSTOMER.equals(userType);
+    }
+
+    /**
+     * Admins may access any customer's data, customers only their own
+     */
+    public boolean canAccessCustomer(String customerId) {
+        return isAdmin() || (isCustomer() && this.customerId.equals(customerId));
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return isAdmin() ? ADMIN_AUTHORITIES : CUSTOMER_AUTHORITIES;
+    }
+
+    @Override
+    public String toString() {
+        return userType + ":" + getName();
+    }
+}
@@ -3,9 +3,12 @@ package com.grocery.ordering.service;
 import com.grocery.ordering.model.AdminUser;
 import com.grocery.ordering.model.Customer;
 import com.grocery.ordering.repository.AdminUserRepository;
+import com.grocery.ordering.service.PasswordHashingService.UserType;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -20,6 +23,8 @@ import java.util.Optional;
 @Transactional
 public class AuthService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     private AdminUserRepository adminUserRepository;
 
@@ -27,18 +32,20 @@ public class AuthService {
     private CustomerService customerService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     /**
      * Authenticate admin user
+     * Runs outside a transaction so no connection is held while the password is checked.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<AdminUser> authenticateAdmin(String username, String password) {
         Optional<AdminUser> adminOpt = adminUserRepository.findByUsername(username);
         
         if (adminOpt.isPresent()) {
             AdminUser admin = adminOpt.get();
-            if (passwordEncoder.matches(password, admin.getPassword())) {
+            if (passwordHashingService.matches(password, admin.getPassword())) {
+                rehashIfNeeded(admin, password);
                 // Don't return password in response
                 admin.setPassword(null);
                 return Optional.of(admin);
@@ -51,7 +58,7 @@ public class AuthService {
     /**
      * Authenticate customer user
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Customer> authenticateCustomer(String email, String password) {
         return customerService.authenticateCustomer(email, password);
     }
@@ -59,7 +66,7 @@ public class AuthService {
     /**
      * Generic login method that determines user type and authenticates
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResult login(String username, String password, String userType) {
         if (userType == null || userType.trim().isEmpty()) {
             // Try to determine user type based on username format
@@ -97,11 +104,31 @@ public class AuthService {
     /**
      * Validate admin credentials for menu access
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean validateAdminCredentials(String username, String password) {
         return authenticateAdmin(username, password).isPresent();
     }
 
+    /**
+     * Admin user signed in to a session, without the password
+     */
+    @Transactional(readOnly = true)
+    public Optional<AdminUser> findAdminUser(String username) {
+        Optional<AdminUser> adminOpt = adminUserRepository.findByUsername(username);
+        adminOpt.ifPresent(admin -> admin.setPassword(null));
+        return adminOpt;
+    }
+
+    /**
+     * Customer signed in to a session, without the password
+     */
+    @Transactional(readOnly = true)
+    public Optional<Customer> findCustomer(String customerId) {
+        Optional<Customer> customerOpt = customerService.findByCustomerId(customerId);
+        customerOpt.ifPresent(customer -> customer.setPassword(null));
+        return customerOpt;
+    }
+
     /**
      * Change admin password
      */
@@ -114,7 +141,7 @@ public class AuthService {
         // Validate new password
         validatePassword(newPassword);
 
-        String encodedPassword = passwordEncoder.encode(newPassword);
+        String encodedPassword = passwordHashingService.encode(UserType.ADMIN, newPassword);
         return adminUserRepository.updatePassword(username, encodedPassword);
     }
 
@@ -122,7 +149,7 @@ public class AuthService {
      * Change customer password
      */
     public boolean changeCustomerPassword(String customerId, String oldPassword, String newPassword) {
-        Optional<Customer> customerOpt = customerService.findByCustomerId(customerId);
+        Optional<Customer> customerOpt = customerService.findWithPassword(customerId);
         if (customerOpt.isEmpty()) {
             throw new RuntimeException("Customer not found");
         }
@@ -130,7 +157,7 @@ public class AuthService {
         Customer customer = customerOpt.get();
         
         // Verify old password
-        if (!passwordEncoder.matches(oldPassword, customer.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, customer.getPassword())) {
             throw new RuntimeException("Invalid current password");
         }
 
@@ -144,6 +171,21 @@ public class AuthService {
         return true;
     }
 
+    /**
+     * Upgrade an admin password hash made with an outdated cost
+     */
+    private void rehashIfNeeded(AdminUser admin, String password) {
+        if (!passwordHashingService.needsRehash(UserType.ADMIN, admin.getPassword())) {
+            return;
+        }
+        try {
+            adminUserRepository.updatePassword(admin.getUsername(), passwordHashingService.encode(UserType.ADMIN, password));
+        } catch (RuntimeException e) {
+            // The login itself succeeded; the hash is upgraded on a later login
+            logger.warn("Could not rehash password of admin {}: {}", admin.getUsername(), e.getMessage());
+        }
+    }
+
     /**
      * Validate password strength
      */
@@ -0,0 +1,46 @@
+package com.grocery.ordering.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version number of the product catalogue
+ * Bumped whenever a product itself may have changed (register, update,
+ * quantity change, delete, import, through ProductCache), immediately and
+ * again when the surrounding transaction completes, so anything rendered
+ * from an uncommitted read is never current after the commit. Reservations
+ * do not bump it. The number is local to this node and starts over on
+ * restart.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class CatalogueVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Current version; read it before loading what is rendered for it
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Mark the catalogue as changed
+     */
+    public void bump() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.grocery.ordering.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grocery.ordering.config.ReplicaRoutingDataSource;
+import com.grocery.ordering.model.Customer;
+import com.grocery.ordering.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Known customer IDs and a bounded cache of customer profiles
+ * Customer IDs of the form CUS + 7 digits are kept as bits of a 10M-bit set
+ * (1.25 MB) loaded from the primary key index at startup; any other ID is
+ * kept in a small set of its own. A known ID answers an existence check
+ * without a query. An unknown one (not loaded yet, or registered on another
+ * node) is checked with SELECT 1 and remembered if it exists. A customer
+ * deleted on another node stays known on this one; the orders foreign key
+ * still rejects its orders.
+ *
+ * Profiles are held in a size-bounded Caffeine cache without the password
+ * hash and handed out as copies; password checks read the hash from the
+ * database. Registration marks the ID known once its transaction commits;
+ * updates, password changes and deletes drop the profile (and a deleted ID)
+ * immediately and again when the transaction completes. Misses are read from
+ * the primary, never from a read replica.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class CustomerCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerCache.class);
+
+    private static final String PREFIX = "CUS";
+    private static final int DIGITS = 7;
+    private static final int CAPACITY = 10_000_000;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.customers.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.customers.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.customers.cache.expire-after-write-ms:300000}")
+    private long expireAfterWriteMs;
+
+    @Value("${app.customers.cache.load-fetch-size:1000}")
+    private int loadFetchSize;
+
+    private final AtomicLongArray knownNumbers = new AtomicLongArray(CAPACITY / Long.SIZE + 1);
+    private Cache<String, Boolean> knownOtherIds;
+    private Cache<String, Customer> profiles;
+
+    @PostConstruct
+    public void init() {
+        knownOtherIds = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .build();
+        profiles = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "customers");
+    }
+
+    /**
+     * Load the IDs of all existing customers
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadKnownIds() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        int[] count = new int[1];
+        customerRepository.forEachCustomerId(loadFetchSize, customerId -> {
+            markKnown(customerId);
+            count[0]++;
+        });
+        logger.info("Loaded {} customer IDs in {} ms", count[0], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Whether a customer exists, querying only for IDs not known yet
+     */
+    public boolean exists(String customerId) {
+        if (customerId == null) {
+            return false;
+        }
+        if (!enabled) {
+            return customerRepository.existsByCustomerId(customerId);
+        }
+        if (isKnown(customerId)) {
+            return true;
+        }
+        boolean exists = ReplicaRoutingDataSource.onPrimary(() -> customerRepository.existsByCustomerId(customerId));
+        if (exists) {
+            markKnown(customerId);
+        }
+        return exists;
+    }
+
+    /**
+     * Get a customer profile, loading it on a miss
+     */
+    public Optional<Customer> get(String customerId, Function<String, Optional<Customer>> loader) {
+        if (!enabled) {
+            return loader.apply(customerId);
+        }
+        Customer customer = profiles.get(customerId, id -> ReplicaRoutingDataSource.onPrimary(() -> loader.apply(id))
+            .map(CustomerCache::copy)
+            .orElse(null));
+        if (customer != null) {
+            markKnown(customerId);
+        }
+        return Optional.ofNullable(customer).map(CustomerCache::copy);
+    }
+
+    /**
+     * Record a newly registered customer once its transaction commits
+     */
+    public void registered(String customerId) {
+        if (enabled) {
+            afterCommit(() -> markKnown(customerId));
+        }
+    }
+
+    /**
+     * Drop the profile of a customer whose details or password changed
+     */
+    public void invalidate(String customerId) {
+        if (enabled) {
+            profiles.invalidate(customerId);
+            onCompletion(() -> profiles.invalidate(customerId));
+        }
+    }
+
+    /**
+     * Forget a deleted customer
+     */
+    public void deleted(String customerId) {
+        if (enabled) {
+            Runnable forget = () -> {
+                profiles.invalidate(customerId);
+                forgetKnown(customerId);
+            };
+            forget.run();
+            onCompletion(forget);
+        }
+    }
+
+    private boolean isKnown(String customerId) {
+        int number = number(customerId);
+        if (number < 0) {
+            return knownOtherIds.getIfPresent(customerId) != null;
+        }
+        return (knownNumbers.get(number >>> 6) & (1L << number)) != 0;
+    }
+
+    private void markKnown(String customerId) {
+        int number = number(customerId);
+        if (number < 0) {
+            knownOtherIds.put(customerId, Boolean.TRUE);
+            return;
+        }
+        long bit = 1L << number;
+        knownNumbers.getAndUpdate(number >>> 6, word -> word | bit);
+    }
+
+    private void forgetKnown(String customerId) {
+        int number = number(customerId);
+        if (number < 0) {
+            knownOtherIds.invalidate(customerId);
+            return;
+        }
+        long bit = 1L << number;
+        knownNumbers.getAndUpdate(number >>> 6, word -> word & ~bit);
+    }
+
+    /**
+     * Number of a CUS + 7 digit customer ID, or -1 for any other ID
+     */
+    private static int number(String customerId) {
+        if (customerId.length() != PREFIX.length() + DIGITS || !customerId.startsWith(PREFIX)) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = PREFIX.length(); i < customerId.length(); i++) {
+            char c = customerId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static Customer copy(Customer customer) {
+        Customer copy = new Customer();
+        copy.setCustomerId(customer.getCustomerId());
+        copy.setFullName(customer.getFullName());
+        copy.setEmail(customer.getEmail());
+        copy.setAddress(customer.getAddress());
+        copy.setContactNumber(customer.getContactNumber());
+        copy.setCreatedAt(customer.getCreatedAt());
+        copy.setUpdatedAt(customer.getUpdatedAt());
+        return copy;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void onCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
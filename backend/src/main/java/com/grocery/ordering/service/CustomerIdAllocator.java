@@ -0,0 +1,103 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.repository.IdSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collision-free customer ID allocation (hi/lo)
+ * IDs are handed out from a block of the "customer" sequence reserved for
+ * this node, and the following block is fetched in the background while the
+ * current one is in use, so a registration normally runs no query for its ID.
+ * Values of a block not used before shutdown are skipped, leaving gaps.
+ *
+ * IDs are "CUS" followed by at least seven digits (CUS0000001); they never
+ * clash with the older three-digit IDs such as CUS001.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class CustomerIdAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerIdAllocator.class);
+
+    private static final String SEQUENCE_NAME = "customer";
+    private static final String PREFIX = "CUS";
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Value("${app.customers.id-block-size:100}")
+    private int blockSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private ExecutorService prefetcher;
+    private Future<Long> nextBlock;
+    private long nextValue;
+    private long blockEnd;
+
+    @PostConstruct
+    public void init() {
+        prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-id-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        nextBlock = prefetch();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    /**
+     * Next unused customer ID
+     */
+    public String nextCustomerId() {
+        lock.lock();
+        try {
+            if (nextValue == blockEnd) {
+                nextValue = takeNextBlock();
+                blockEnd = nextValue + blockSize;
+                nextBlock = prefetch();
+            }
+            return format(nextValue++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String format(long value) {
+        return PREFIX + String.format(Locale.ROOT, "%07d", value);
+    }
+
+    private Future<Long> prefetch() {
+        return prefetcher.submit(() -> idSequenceRepository.allocateBlock(SEQUENCE_NAME, blockSize));
+    }
+
+    private long takeNextBlock() {
+        try {
+            return nextBlock.get();
+        } catch (ExecutionException e) {
+            // The background fetch failed (e.g. the database was unavailable); try again on this thread
+            logger.warn("Prefetching a customer ID block failed: {}", e.getCause().getMessage());
+            return idSequenceRepository.allocateBlock(SEQUENCE_NAME, blockSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while allocating a customer ID");
+        }
+    }
+}
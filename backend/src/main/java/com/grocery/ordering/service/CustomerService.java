@@ -2,9 +2,12 @@ package com.grocery.ordering.service;
 
 import com.grocery.ordering.model.Customer;
 import com.grocery.ordering.repository.CustomerRepository;
+import com.grocery.ordering.service.PasswordHashingService.UserType;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -20,11 +23,19 @@ import java.util.Optional;
 @Transactional
 public class CustomerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
+
     @Autowired
     private CustomerRepository customerRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private CustomerIdAllocator customerIdAllocator;
+
+    @Autowired
+    private CustomerCache customerCache;
 
     /**
      * Register a new customer with validation
@@ -44,10 +55,13 @@ public class CustomerService {
         validatePassword(customer.getPassword());
 
         // Encrypt password
-        customer.setPassword(passwordEncoder.encode(customer.getPassword()));
+        customer.setPassword(passwordHashingService.encode(UserType.CUSTOMER, customer.getPassword()));
 
-        // Generate customer ID and save
-        return customerRepository.save(customer);
+        // Assign customer ID and save
+        customer.setCustomerId(customerIdAllocator.nextCustomerId());
+        Customer saved = customerRepository.save(customer);
+        customerCache.registered(saved.getCustomerId());
+        return saved;
     }
 
     /**
@@ -82,9 +96,10 @@ public class CustomerService {
         // Update password if provided
         if (updatedCustomer.getPassword() != null && !updatedCustomer.getPassword().isEmpty()) {
             validatePassword(updatedCustomer.getPassword());
-            existingCustomer.setPassword(passwordEncoder.encode(updatedCustomer.getPassword()));
+            existingCustomer.setPassword(passwordHashingService.encode(UserType.CUSTOMER, updatedCustomer.getPassword()));
         }
 
+        customerCache.invalidate(customerId);
         return customerRepository.update(existingCustomer);
     }
 
@@ -93,6 +108,15 @@ public class CustomerService {
      */
     @Transactional(readOnly = true)
     public Optional<Customer> findByCustomerId(String customerId) {
+        return customerCache.get(customerId, customerRepository::findByCustomerId);
+    }
+
+    /**
+     * Find customer by ID with the password hash, read from the database
+     * Cached profiles carry no hash, and one cached before a password change on
+     * another node must never be checked against.
+     */
+    public Optional<Customer> findWithPassword(String customerId) {
         return customerRepository.findByCustomerId(customerId);
     }
 
@@ -139,13 +163,14 @@ public class CustomerService {
     /**
      * Authenticate customer login
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Customer> authenticateCustomer(String email, String password) {
         Optional<Customer> customerOpt = customerRepository.findByEmail(email);
         
         if (customerOpt.isPresent()) {
             Customer customer = customerOpt.get();
-            if (passwordEncoder.matches(password, customer.getPassword())) {
+            if (passwordHashingService.matches(password, customer.getPassword())) {
+                rehashIfNeeded(customer, password);
                 // Don't return password in response
                 customer.setPassword(null);
                 return Optional.of(customer);
@@ -159,12 +184,30 @@ public class CustomerService {
      * Delete customer (admin only)
      */
     public boolean deleteCustomer(String customerId) {
-        if (!customerRepository.findByCustomerId(customerId).isPresent()) {
+        if (!customerRepository.existsByCustomerId(customerId)) {
             throw new RuntimeException("Customer not found with ID: " + customerId);
         }
+        customerCache.deleted(customerId);
         return customerRepository.deleteByCustomerId(customerId);
     }
 
+    /**
+     * Upgrade a customer password hash made with an outdated cost
+     */
+    private void rehashIfNeeded(Customer customer, String password) {
+        if (!passwordHashingService.needsRehash(UserType.CUSTOMER, customer.getPassword())) {
+            return;
+        }
+        try {
+            customerRepository.updatePassword(customer.getCustomerId(),
+                                              passwordHashingService.encode(UserType.CUSTOMER, password));
+            customerCache.invalidate(customer.getCustomerId());
+        } catch (RuntimeException e) {
+            // The login itself succeeded; the hash is upgraded on a later login
+            logger.warn("Could not rehash password of customer {}: {}", customer.getCustomerId(), e.getMessage());
+        }
+    }
+
     /**
      * Validate password strength
      */
@@ -184,11 +227,11 @@ public class CustomerService {
     }
 
     /**
-     * Check if customer exists
+     * Check if customer exists, from memory for known customers
      */
     @Transactional(readOnly = true)
     public boolean customerExists(String customerId) {
-        return customerRepository.findByCustomerId(customerId).isPresent();
+        return customerCache.exists(customerId);
     }
 
     /**
@@ -0,0 +1,359 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.repository.OrderRepository;
+import com.grocery.ordering.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory inventory reservation engine
+ * Admits or rejects reservations against per-product atomic counters and
+ * flushes the net reserved quantity to the products table in batches.
+ *
+ * Orders admitted by the engine are saved with reservation_applied = FALSE,
+ * so the orders table doubles as the durable journal: every flush (and the
+ * recovery pass at startup) folds unapplied orders into products.reserved and
+ * marks them applied in the same transaction.
+ *
+ * The counters are authoritative only for a single writer node, so the
+ * engine is off unless app.inventory.engine.enabled=true; with several nodes
+ * taking orders the database admits them instead.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class InventoryReservationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReservationEngine.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.inventory.engine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.inventory.engine.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private final Map<Integer, AtomicInteger> availableByProduct = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Integer> pendingOrderIds = new ConcurrentLinkedQueue<>();
+
+    private Counter reservationsAccepted;
+    private Counter reservationsRejected;
+
+    @PostConstruct
+    public void init() {
+        reservationsAccepted = reservationCounter("accepted");
+        reservationsRejected = reservationCounter("rejected");
+    }
+
+    /**
+     * Whether reservations are admitted in memory and flushed asynchronously
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserve quantity for a product
+     * Returns false when the product is unknown or has insufficient stock.
+     */
+    public boolean reserve(Integer productId, int quantity) {
+        return reserveAll(Map.of(productId, quantity)).isEmpty();
+    }
+
+    /**
+     * Reserve quantities for several products, all or nothing
+     * Returns the ID of a product that could not be reserved, or empty on success.
+     */
+    public Optional<Integer> reserveAll(Map<Integer, Integer> quantitiesByProduct) {
+        if (!enabled) {
+            List<Integer> rejected = quantitiesByProduct.size() == 1
+                ? singleReservation(quantitiesByProduct)
+                : productRepository.reserveQuantities(new TreeMap<>(quantitiesByProduct));
+            if (rejected.isEmpty()) {
+                productCache.invalidateAll(quantitiesByProduct.keySet());
+            }
+            return rejected.stream().findFirst();
+        }
+
+        Map<AtomicInteger, Integer> taken = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantitiesByProduct).entrySet()) {
+            AtomicInteger available = counterFor(entry.getKey());
+            if (available == null || !take(available, entry.getValue())) {
+                taken.forEach(AtomicInteger::addAndGet);
+                reservationsRejected.increment();
+                return Optional.of(entry.getKey());
+            }
+            taken.put(available, entry.getValue());
+        }
+        reservationsAccepted.increment();
+
+        // Give the quantities back if the surrounding transaction does not commit
+        onCompletion(false, () -> taken.forEach(AtomicInteger::addAndGet));
+        return Optional.empty();
+    }
+
+    /**
+     * Reserve quantity for a product outside any transaction (engine enabled only)
+     * Returns the action that gives the quantity back if the order is not saved,
+     * or empty when the product is unknown or has insufficient stock.
+     */
+    public Optional<Runnable> reserveDetached(Integer productId, int quantity) {
+        if (!enabled) {
+            throw new IllegalStateException("Detached reservations need the in-memory reservation engine");
+        }
+        AtomicInteger available = counterFor(productId);
+        if (available == null || !take(available, quantity)) {
+            reservationsRejected.increment();
+            return Optional.empty();
+        }
+        reservationsAccepted.increment();
+        return Optional.of(() -> available.addAndGet(quantity));
+    }
+
+    /**
+     * Queue a saved order for the next flush once its transaction commits
+     */
+    public void scheduleFlush(Integer orderId) {
+        if (enabled && orderId != null) {
+            onCompletion(true, () -> pendingOrderIds.add(orderId));
+        }
+    }
+
+    /**
+     * Release the quantity reserved by an order
+     */
+    public void release(Integer orderId, Integer productId, int quantity) {
+        release(orderId, Map.of(productId, quantity));
+    }
+
+    /**
+     * Release the quantities reserved by an order, one entry per product
+     */
+    public void release(Integer orderId, Map<Integer, Integer> quantitiesByProduct) {
+        // An order that was never flushed has nothing to give back in the products table
+        if (!enabled || !orderRepository.claimDeferredReservation(orderId)) {
+            if (quantitiesByProduct.size() == 1) {
+                quantitiesByProduct.forEach(productRepository::releaseReservedQuantity);
+            } else {
+                productRepository.releaseReservedQuantities(new TreeMap<>(quantitiesByProduct));
+            }
+            productCache.invalidateAll(quantitiesByProduct.keySet());
+        }
+
+        giveBack(quantitiesByProduct);
+    }
+
+    /**
+     * Release the reservations of orders whose deferred reservations have already been claimed
+     * appliedByProduct is the part held in products.reserved, released with one
+     * batched UPDATE; reservedByProduct is everything the orders took from the
+     * in-memory counters.
+     */
+    public void releaseClaimed(Map<Integer, Integer> appliedByProduct, Map<Integer, Integer> reservedByProduct) {
+        if (!appliedByProduct.isEmpty()) {
+            productRepository.releaseReservedQuantities(new TreeMap<>(appliedByProduct));
+            productCache.invalidateAll(appliedByProduct.keySet());
+        }
+        giveBack(reservedByProduct);
+    }
+
+    /**
+     * Get the quantity the engine would currently admit for a product
+     */
+    public Optional<Integer> getAvailableQuantity(Integer productId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        AtomicInteger available = counterFor(productId);
+        return available != null ? Optional.of(Math.max(0, available.get())) : Optional.empty();
+    }
+
+    /**
+     * Apply an administrative change of (quantity - reserved) to a loaded counter
+     */
+    public void adjustStock(Integer productId, int delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+        onCompletion(true, () -> {
+            AtomicInteger available = availableByProduct.get(productId);
+            if (available != null) {
+                available.addAndGet(delta);
+            }
+        });
+    }
+
+    /**
+     * Forget a product, e.g. after it has been deleted
+     */
+    public void evict(Integer productId) {
+        onCompletion(true, () -> availableByProduct.remove(productId));
+    }
+
+    /**
+     * Fold orders admitted by the engine into products.reserved
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.engine.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Integer> batch = new ArrayList<>();
+        Integer orderId;
+        while (!pendingOrderIds.isEmpty()) {
+            while (batch.size() < flushBatchSize && (orderId = pendingOrderIds.poll()) != null) {
+                batch.add(orderId);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                applyDeferredReservations(batch);
+            } catch (Exception e) {
+                logger.warn("Reservation flush of {} orders failed, will retry: {}", batch.size(), e.getMessage());
+                pendingOrderIds.addAll(batch);
+                return;
+            }
+            batch = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reconcile reservations that were admitted but not flushed before a shutdown or crash
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Integer> unapplied = orderRepository.findDeferredReservationOrderIds();
+        if (!unapplied.isEmpty()) {
+            logger.info("Reconciling {} unflushed reservations", unapplied.size());
+            pendingOrderIds.addAll(unapplied);
+            flush();
+        }
+    }
+
+    private void applyDeferredReservations(List<Integer> orderIds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Locks the order rows so a concurrent cancel waits until they are applied
+            Map<Integer, Integer> reservedByProduct = orderRepository.lockDeferredReservations(orderIds);
+            if (!reservedByProduct.isEmpty()) {
+                productRepository.addReservedQuantities(reservedByProduct);
+                orderRepository.markReservationsApplied(orderIds);
+                productCache.invalidateAll(reservedByProduct.keySet());
+            }
+        });
+    }
+
+    /**
+     * Return released quantities to the loaded counters once the transaction commits
+     */
+    private void giveBack(Map<Integer, Integer> quantitiesByProduct) {
+        if (enabled) {
+            onCompletion(true, () -> quantitiesByProduct.forEach((productId, quantity) -> {
+                AtomicInteger available = availableByProduct.get(productId);
+                if (available != null) {
+                    available.addAndGet(quantity);
+                }
+            }));
+        }
+    }
+
+    private List<Integer> singleReservation(Map<Integer, Integer> quantitiesByProduct) {
+        Map.Entry<Integer, Integer> entry = quantitiesByProduct.entrySet().iterator().next();
+        return productRepository.reserveQuantity(entry.getKey(), entry.getValue())
+            ? List.of() : List.of(entry.getKey());
+    }
+
+    private static boolean take(AtomicInteger available, int quantity) {
+        int current;
+        do {
+            current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!available.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private AtomicInteger counterFor(Integer productId) {
+        AtomicInteger available = availableByProduct.get(productId);
+        if (available != null) {
+            return available;
+        }
+        return availableByProduct.computeIfAbsent(productId,
+            id -> productRepository.findReservableQuantity(id).map(AtomicInteger::new).orElse(null));
+    }
+
+    /**
+     * Run an action once the current transaction completes, or immediately without one
+     */
+    private void onCompletion(boolean onCommit, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == onCommit) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reservations admitted or refused by the in-memory counters, by outcome
+     */
+    private Counter reservationCounter(String outcome) {
+        return Counter.builder("inventory.reservations")
+            .description("Stock reservations by where they were decided and their outcome")
+            .tag("source", "memory")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
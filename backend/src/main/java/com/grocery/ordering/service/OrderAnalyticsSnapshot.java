@@ -0,0 +1,774 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.config.ReplicaRoutingDataSource;
+import com.grocery.ordering.model.Customer;
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.model.OrderItem;
+import com.grocery.ordering.model.Product;
+import com.grocery.ordering.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Columnar in-memory snapshot of all orders for admin analytics
+ * Orders are held as parallel primitive arrays sorted by order ID: int IDs,
+ * epoch seconds, amounts in cents, quantities, a status byte and an int code
+ * into a dictionary holding each customer's ID and name once. Product lines
+ * (the product of a single-product order, or each item of a cart order) are
+ * a second set of arrays in the same order, coded against a product
+ * dictionary. That is 29 bytes per order and 20 per line, so a million
+ * orders take tens of MB rather than the hundreds of a list of Orders.
+ *
+ * Aggregations by day, status, product or customer are single passes over
+ * the arrays into primitive accumulators. The snapshot is loaded from the
+ * primary once the application is up and rebuilt every
+ * app.orders.analytics.rebuild-interval-ms to pick up other nodes' changes;
+ * in between, orders created, status changes and deletes on this node are
+ * applied as their transactions commit. A rebuild loads without blocking
+ * queries and replays the changes committed while it ran.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class OrderAnalyticsSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAnalyticsSnapshot.class);
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final byte DELETED = -1;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.orders.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.orders.analytics.load-fetch-size:5000}")
+    private int loadFetchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Mutated in place under the write lock, read under the read lock
+    private volatile Columns columns;
+
+    // Changes committed while a rebuild loads, replayed onto the fresh columns
+    private List<Consumer<Columns>> pending;
+
+    /**
+     * How to group orders in a summary
+     */
+    public enum GroupBy {
+        DAY, STATUS, PRODUCT, CUSTOMER
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("orders.analytics.snapshot.size", this, OrderAnalyticsSnapshot::getSizeInBytes)
+            .description("Memory held by the order analytics columns")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("orders.analytics.snapshot.orders", this, OrderAnalyticsSnapshot::getOrderCount)
+            .description("Orders in the order analytics snapshot")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Load the snapshot once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Periodically reload the snapshot to pick up changes made by other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.orders.analytics.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.orders.analytics.rebuild-interval-ms:600000}")
+    public void refresh() {
+        if (enabled && columns != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Record a new order and its lines once its transaction commits
+     */
+    public void recordCreated(Order order) {
+        if (enabled && order != null && order.getOrderId() != null) {
+            NewOrder created = new NewOrder(order);
+            afterCommit(() -> apply(current -> current.addOrder(created)));
+        }
+    }
+
+    /**
+     * Record a status change once its transaction commits
+     */
+    public void recordStatus(Integer orderId, OrderStatus status) {
+        recordStatuses(List.of(orderId), status);
+    }
+
+    /**
+     * Record the same status change of several orders once their transaction commits
+     */
+    public void recordStatuses(List<Integer> orderIds, OrderStatus status) {
+        if (enabled && !orderIds.isEmpty()) {
+            int[] ids = orderIds.stream().mapToInt(Integer::intValue).toArray();
+            byte code = (byte) status.ordinal();
+            afterCommit(() -> apply(current -> current.setStatus(ids, code)));
+        }
+    }
+
+    /**
+     * Record a deleted order once its transaction commits
+     */
+    public void recordDeleted(Integer orderId) {
+        if (enabled) {
+            int[] ids = {orderId};
+            afterCommit(() -> apply(current -> current.setStatus(ids, DELETED)));
+        }
+    }
+
+    /**
+     * Aggregate orders placed between two times (either may be null) with an optional status
+     * Day groups come newest first, status groups in status order, product and
+     * customer groups by amount, largest first; at most limit groups are returned.
+     */
+    public Summary summarize(GroupBy groupBy, LocalDateTime startDate, LocalDateTime endDate, OrderStatus status,
+                             int limit) {
+        if (!enabled) {
+            throw new IllegalStateException("Order analytics snapshot is disabled");
+        }
+        if (columns == null) {
+            buildIfMissing();
+        }
+
+        long from = startDate == null ? Long.MIN_VALUE : epochSecond(startDate);
+        long to = endDate == null ? Long.MAX_VALUE : epochSecond(endDate);
+        int wanted = status == null ? -1 : status.ordinal();
+
+        Summary summary = withReadLock(() -> {
+            Columns current = columns;
+            Totals totals = switch (groupBy) {
+                case DAY -> current.byDay(from, to, wanted);
+                case STATUS -> current.byStatus(from, to, wanted);
+                case PRODUCT -> current.byProduct(from, to, wanted);
+                case CUSTOMER -> current.byCustomer(from, to, wanted);
+            };
+            List<Group> groups = new ArrayList<>();
+            for (int slot = 0; slot < totals.orders.length; slot++) {
+                if (totals.orders[slot] > 0) {
+                    groups.add(current.group(groupBy, totals, slot));
+                }
+            }
+            groups.sort(order(groupBy));
+            List<Group> limited = new ArrayList<>(groups.subList(0, Math.min(limit, groups.size())));
+            return new Summary(groupBy, limited, current.size, current.builtAt);
+        });
+        nameUnnamed(groupBy, summary.groups);
+        return summary;
+    }
+
+    /**
+     * Whether the snapshot has been loaded and can answer summaries
+     */
+    public boolean isLoaded() {
+        return enabled && columns != null;
+    }
+
+    /**
+     * Orders in the snapshot, including deleted ones not yet dropped by a rebuild
+     */
+    public int getOrderCount() {
+        return withReadLock(() -> columns == null ? 0 : columns.size);
+    }
+
+    /**
+     * Bytes held by the order and line columns, excluding the name dictionaries
+     */
+    public long getSizeInBytes() {
+        return withReadLock(() -> columns == null ? 0L : columns.sizeInBytes());
+    }
+
+    private void buildIfMissing() {
+        rebuildLock.lock();
+        try {
+            if (columns == null) {
+                rebuild();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Load all orders into fresh columns and swap them in
+     * Queries keep using the old columns during the load; changes committed
+     * meanwhile are applied to both and replayed onto the fresh ones.
+     */
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            long started = System.nanoTime();
+            withWriteLock(() -> pending = new ArrayList<>());
+            Columns fresh = loadOrDiscardPending();
+            withWriteLock(() -> {
+                pending.forEach(change -> change.accept(fresh));
+                pending = null;
+                columns = fresh;
+            });
+            logger.info("Order analytics snapshot built with {} orders, {} lines and {} customers ({} KB) in {} ms",
+                        fresh.size, fresh.lineCount, fresh.customerIds.size(), fresh.sizeInBytes() / 1024,
+                        (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Columns loadOrDiscardPending() {
+        try {
+            return ReplicaRoutingDataSource.onPrimary(this::load);
+        } catch (RuntimeException e) {
+            withWriteLock(() -> pending = null);
+            throw e;
+        }
+    }
+
+    private Columns load() {
+        Columns fresh = new Columns();
+        orderRepository.forEachOrderFact(loadFetchSize, (orderId, customerId, customerName, orderDate, amount,
+                                                         quantity, status) ->
+            fresh.insertOrder(fresh.size, orderId, fresh.customerCode(customerId, customerName),
+                              epochSecond(orderDate), cents(amount), quantity, (byte) status.ordinal()));
+        orderRepository.forEachOrderLine(loadFetchSize, (orderId, productId, productName, quantity, lineAmount) -> {
+            // Lines of an order placed after the order query arrive with its commit event instead
+            if (fresh.indexOf(orderId) >= 0) {
+                fresh.insertLine(fresh.lineCount, orderId, fresh.productCode(productId, productName), quantity,
+                                 cents(lineAmount));
+            }
+        });
+        fresh.trim();
+        return fresh;
+    }
+
+    private void apply(Consumer<Columns> change) {
+        withWriteLock(() -> {
+            if (columns != null) {
+                change.accept(columns);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        });
+    }
+
+    /**
+     * Fill in names the dictionaries do not have yet, e.g. of a customer's first order since the last rebuild
+     */
+    private void nameUnnamed(GroupBy groupBy, List<Group> groups) {
+        for (Group group : groups) {
+            if (group.label != null) {
+                continue;
+            }
+            if (groupBy == GroupBy.CUSTOMER) {
+                String customerId = group.key;
+                group.label = customerService.findByCustomerId(customerId).map(Customer::getFullName).orElse(null);
+                String name = group.label;
+                if (name != null) {
+                    apply(current -> current.customerCode(customerId, name));
+                }
+            } else if (groupBy == GroupBy.PRODUCT) {
+                Integer productId = Integer.valueOf(group.key);
+                group.label = productService.findById(productId).map(Product::getProductName).orElse(null);
+                String name = group.label;
+                if (name != null) {
+                    apply(current -> current.productCode(productId, name));
+                }
+            }
+        }
+    }
+
+    private static Comparator<Group> order(GroupBy groupBy) {
+        return switch (groupBy) {
+            case DAY -> Comparator.comparing((Group g) -> g.key).reversed();
+            case STATUS -> Comparator.comparingInt((Group g) -> OrderStatus.fromString(g.key).ordinal());
+            case PRODUCT, CUSTOMER -> Comparator.comparingLong((Group g) -> g.amountCents).reversed()
+                .thenComparing(g -> g.key);
+        };
+    }
+
+    private <T> T withReadLock(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Serialise changes; a lock rather than synchronized so waiting writers do
+     * not pin a virtual thread's carrier
+     */
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Seconds of the wall-clock time order_date holds, so days are the stored calendar days
+     */
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The order and line columns with their dictionaries
+     */
+    private static class Columns {
+        private final LocalDateTime builtAt = LocalDateTime.now();
+
+        // Orders, sorted by order ID
+        private int size;
+        private int[] orderIds = new int[0];
+        private long[] epochSeconds = new long[0];
+        private long[] amountCents = new long[0];
+        private int[] quantities = new int[0];
+        private byte[] statuses = new byte[0];
+        private int[] customerCodes = new int[0];
+
+        // Product lines, sorted by order ID
+        private int lineCount;
+        private int[] lineOrderIds = new int[0];
+        private int[] lineProductCodes = new int[0];
+        private int[] lineQuantities = new int[0];
+        private long[] lineAmountCents = new long[0];
+
+        private final Map<String, Integer> customerCodesById = new HashMap<>();
+        private final List<String> customerIds = new ArrayList<>();
+        private final List<String> customerNames = new ArrayList<>();
+        private final Map<Integer, Integer> productCodesById = new HashMap<>();
+        private final List<Integer> productIds = new ArrayList<>();
+        private final List<String> productNames = new ArrayList<>();
+
+        int indexOf(int orderId) {
+            return Arrays.binarySearch(orderIds, 0, size, orderId);
+        }
+
+        /**
+         * Dictionary code of a customer, adding it (or its missing name) if needed
+         */
+        int customerCode(String customerId, String name) {
+            Integer code = customerCodesById.get(customerId);
+            if (code == null) {
+                code = customerIds.size();
+                customerCodesById.put(customerId, code);
+                customerIds.add(customerId);
+                customerNames.add(name);
+            } else if (name != null && customerNames.get(code) == null) {
+                customerNames.set(code, name);
+            }
+            return code;
+        }
+
+        /**
+         * Dictionary code of a product, adding it (or its missing name) if needed
+         */
+        int productCode(int productId, String name) {
+            Integer code = productCodesById.get(productId);
+            if (code == null) {
+                code = productIds.size();
+                productCodesById.put(productId, code);
+                productIds.add(productId);
+                productNames.add(name);
+            } else if (name != null && productNames.get(code) == null) {
+                productNames.set(code, name);
+            }
+            return code;
+        }
+
+        /**
+         * Add an order and its lines unless the order is already there
+         */
+        void addOrder(NewOrder order) {
+            int position = indexOf(order.orderId);
+            if (position >= 0) {
+                return;
+            }
+            insertOrder(-position - 1, order.orderId, customerCode(order.customerId, order.customerName),
+                        order.epochSecond, order.amountCents, order.quantity, order.status);
+
+            // No lines of this order exist yet, so the search yields where they go
+            int linePosition = -Arrays.binarySearch(lineOrderIds, 0, lineCount, order.orderId) - 1;
+            for (int i = 0; i < order.productIds.length; i++) {
+                insertLine(linePosition + i, order.orderId, productCode(order.productIds[i], order.productNames[i]),
+                           order.lineQuantities[i], order.lineAmountCents[i]);
+            }
+        }
+
+        /**
+         * Set the status of the orders present; a deleted order stays deleted
+         */
+        void setStatus(int[] ids, byte status) {
+            for (int orderId : ids) {
+                int position = indexOf(orderId);
+                if (position >= 0 && statuses[position] != DELETED) {
+                    statuses[position] = status;
+                }
+            }
+        }
+
+        void insertOrder(int at, int orderId, int customerCode, long epochSecond, long cents, int quantity,
+                         byte status) {
+            if (size == orderIds.length) {
+                int capacity = grow(size);
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+                amountCents = Arrays.copyOf(amountCents, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                customerCodes = Arrays.copyOf(customerCodes, capacity);
+            }
+            if (at < size) {
+                int moved = size - at;
+                System.arraycopy(orderIds, at, orderIds, at + 1, moved);
+                System.arraycopy(epochSeconds, at, epochSeconds, at + 1, moved);
+                System.arraycopy(amountCents, at, amountCents, at + 1, moved);
+                System.arraycopy(quantities, at, quantities, at + 1, moved);
+                System.arraycopy(statuses, at, statuses, at + 1, moved);
+                System.arraycopy(customerCodes, at, customerCodes, at + 1, moved);
+            }
+            orderIds[at] = orderId;
+            epochSeconds[at] = epochSecond;
+            amountCents[at] = cents;
+            quantities[at] = quantity;
+            statuses[at] = status;
+            customerCodes[at] = customerCode;
+            size++;
+        }
+
+        void insertLine(int at, int orderId, int productCode, int quantity, long cents) {
+            if (lineCount == lineOrderIds.length) {
+                int capacity = grow(lineCount);
+                lineOrderIds = Arrays.copyOf(lineOrderIds, capacity);
+                lineProductCodes = Arrays.copyOf(lineProductCodes, capacity);
+                lineQuantities = Arrays.copyOf(lineQuantities, capacity);
+                lineAmountCents = Arrays.copyOf(lineAmountCents, capacity);
+            }
+            if (at < lineCount) {
+                int moved = lineCount - at;
+                System.arraycopy(lineOrderIds, at, lineOrderIds, at + 1, moved);
+                System.arraycopy(lineProductCodes, at, lineProductCodes, at + 1, moved);
+                System.arraycopy(lineQuantities, at, lineQuantities, at + 1, moved);
+                System.arraycopy(lineAmountCents, at, lineAmountCents, at + 1, moved);
+            }
+            lineOrderIds[at] = orderId;
+            lineProductCodes[at] = productCode;
+            lineQuantities[at] = quantity;
+            lineAmountCents[at] = cents;
+            lineCount++;
+        }
+
+        /**
+         * Capacity for columns holding length entries to take one more, grown by half
+         */
+        private static int grow(int length) {
+            return Math.max(16, length + (length >> 1));
+        }
+
+        /**
+         * Drop the spare capacity left by loading
+         */
+        void trim() {
+            orderIds = Arrays.copyOf(orderIds, size);
+            epochSeconds = Arrays.copyOf(epochSeconds, size);
+            amountCents = Arrays.copyOf(amountCents, size);
+            quantities = Arrays.copyOf(quantities, size);
+            statuses = Arrays.copyOf(statuses, size);
+            customerCodes = Arrays.copyOf(customerCodes, size);
+            lineOrderIds = Arrays.copyOf(lineOrderIds, lineCount);
+            lineProductCodes = Arrays.copyOf(lineProductCodes, lineCount);
+            lineQuantities = Arrays.copyOf(lineQuantities, lineCount);
+            lineAmountCents = Arrays.copyOf(lineAmountCents, lineCount);
+        }
+
+        long sizeInBytes() {
+            return (long) orderIds.length * (Integer.BYTES * 3 + Long.BYTES * 2 + Byte.BYTES)
+                + (long) lineOrderIds.length * (Integer.BYTES * 3 + Long.BYTES);
+        }
+
+        private boolean matches(int i, long from, long to, int status) {
+            byte code = statuses[i];
+            long time = epochSeconds[i];
+            return code != DELETED && (status < 0 || code == status) && time >= from && time <= to;
+        }
+
+        Totals byStatus(long from, long to, int status) {
+            Totals totals = new Totals(STATUSES.length, 0);
+            for (int i = 0; i < size; i++) {
+                if (matches(i, from, to, status)) {
+                    totals.add(statuses[i], quantities[i], amountCents[i]);
+                }
+            }
+            return totals;
+        }
+
+        Totals byCustomer(long from, long to, int status) {
+            Totals totals = new Totals(customerIds.size(), 0);
+            for (int i = 0; i < size; i++) {
+                if (matches(i, from, to, status)) {
+                    totals.add(customerCodes[i], quantities[i], amountCents[i]);
+                }
+            }
+            return totals;
+        }
+
+        /**
+         * Totals per day, one slot per day between the first and last matching order
+         */
+        Totals byDay(long from, long to, int status) {
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (matches(i, from, to, status)) {
+                    first = Math.min(first, epochSeconds[i]);
+                    last = Math.max(last, epochSeconds[i]);
+                }
+            }
+            if (first > last) {
+                return new Totals(0, 0);
+            }
+            long firstDay = Math.floorDiv(first, SECONDS_PER_DAY);
+            Totals totals = new Totals((int) (Math.floorDiv(last, SECONDS_PER_DAY) - firstDay + 1), firstDay);
+            for (int i = 0; i < size; i++) {
+                if (matches(i, from, to, status)) {
+                    int slot = (int) (Math.floorDiv(epochSeconds[i], SECONDS_PER_DAY) - firstDay);
+                    totals.add(slot, quantities[i], amountCents[i]);
+                }
+            }
+            return totals;
+        }
+
+        /**
+         * Totals per product, merging the lines with their orders as both are sorted by order ID
+         */
+        Totals byProduct(long from, long to, int status) {
+            Totals totals = new Totals(productIds.size(), 0);
+            int i = 0;
+            for (int line = 0; line < lineCount; line++) {
+                int orderId = lineOrderIds[line];
+                while (i < size && orderIds[i] < orderId) {
+                    i++;
+                }
+                if (i < size && orderIds[i] == orderId && matches(i, from, to, status)) {
+                    totals.add(lineProductCodes[line], lineQuantities[line], lineAmountCents[line]);
+                }
+            }
+            return totals;
+        }
+
+        Group group(GroupBy groupBy, Totals totals, int slot) {
+            String key;
+            String label = null;
+            switch (groupBy) {
+                case DAY -> key = LocalDate.ofEpochDay(totals.firstKey + slot).toString();
+                case STATUS -> key = STATUSES[slot].getValue();
+                case PRODUCT -> {
+                    key = String.valueOf(productIds.get(slot));
+                    label = productNames.get(slot);
+                }
+                default -> {
+                    key = customerIds.get(slot);
+                    label = customerNames.get(slot);
+                }
+            }
+            return new Group(key, label, totals.orders[slot], totals.quantities[slot], totals.amountCents[slot]);
+        }
+    }
+
+    /**
+     * Accumulators of one summary, indexed by group slot
+     */
+    private static class Totals {
+        private final long firstKey;
+        private final long[] orders;
+        private final long[] quantities;
+        private final long[] amountCents;
+
+        Totals(int slots, long firstKey) {
+            this.firstKey = firstKey;
+            this.orders = new long[slots];
+            this.quantities = new long[slots];
+            this.amountCents = new long[slots];
+        }
+
+        void add(int slot, int quantity, long cents) {
+            orders[slot]++;
+            quantities[slot] += quantity;
+            amountCents[slot] += cents;
+        }
+    }
+
+    /**
+     * A committed order reduced to the values the columns keep
+     */
+    private static class NewOrder {
+        private final int orderId;
+        private final String customerId;
+        private final String customerName;
+        private final long epochSecond;
+        private final long amountCents;
+        private final int quantity;
+        private final byte status;
+        private final int[] productIds;
+        private final String[] productNames;
+        private final int[] lineQuantities;
+        private final long[] lineAmountCents;
+
+        NewOrder(Order order) {
+            orderId = order.getOrderId();
+            customerId = order.getCustomerId();
+            customerName = order.getCustomerName();
+            epochSecond = epochSecond(order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now());
+            amountCents = cents(order.getOrderAmount());
+            quantity = order.getQuantityOrdered() != null ? order.getQuantityOrdered() : 0;
+            status = (byte) (order.getStatus() != null ? order.getStatus() : OrderStatus.PENDING).ordinal();
+
+            List<OrderItem> items = order.getItems();
+            if (items != null && !items.isEmpty()) {
+                productIds = new int[items.size()];
+                productNames = new String[items.size()];
+                lineQuantities = new int[items.size()];
+                lineAmountCents = new long[items.size()];
+                for (int i = 0; i < items.size(); i++) {
+                    OrderItem item = items.get(i);
+                    productIds[i] = item.getProductId();
+                    productNames[i] = item.getProductName();
+                    lineQuantities[i] = item.getQuantity();
+                    lineAmountCents[i] = cents(item.getLineAmount());
+                }
+            } else if (order.getProductId() != null) {
+                productIds = new int[]{order.getProductId()};
+                productNames = new String[]{order.getProductName()};
+                lineQuantities = new int[]{quantity};
+                lineAmountCents = new long[]{amountCents};
+            } else {
+                productIds = new int[0];
+                productNames = new String[0];
+                lineQuantities = new int[0];
+                lineAmountCents = new long[0];
+            }
+        }
+    }
+
+    /**
+     * Groups of one summary with the time the snapshot was loaded
+     */
+    public static class Summary {
+        private final GroupBy groupBy;
+        private final List<Group> groups;
+        private final int snapshotOrders;
+        private final LocalDateTime snapshotBuiltAt;
+
+        public Summary(GroupBy groupBy, List<Group> groups, int snapshotOrders, LocalDateTime snapshotBuiltAt) {
+            this.groupBy = groupBy;
+            this.groups = groups;
+            this.snapshotOrders = snapshotOrders;
+            this.snapshotBuiltAt = snapshotBuiltAt;
+        }
+
+        public GroupBy getGroupBy() { return groupBy; }
+        public List<Group> getGroups() { return groups; }
+        public int getSnapshotOrders() { return snapshotOrders; }
+        public LocalDateTime getSnapshotBuiltAt() { return snapshotBuiltAt; }
+    }
+
+    /**
+     * Order count, quantity and amount of one day, status, product or customer
+     * For products the count is of orders containing the product and the
+     * quantity and amount are those of its lines.
+     */
+    public static class Group {
+        private final String key;
+        private String label;
+        private final long orderCount;
+        private final long quantity;
+        private final long amountCents;
+
+        public Group(String key, String label, long orderCount, long quantity, long amountCents) {
+            this.key = key;
+            this.label = label;
+            this.orderCount = orderCount;
+            this.quantity = quantity;
+            this.amountCents = amountCents;
+        }
+
+        public String getKey() { return key; }
+        public String getLabel() { return label; }
+        public long getOrderCount() { return orderCount; }
+        public long getQuantity() { return quantity; }
+        public BigDecimal getTotalAmount() { return BigDecimal.valueOf(amountCents, 2); }
+    }
+}
@@ -0,0 +1,245 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order;
+import com.grocery.ordering.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for order inserts
+ * Orders submitted within app.orders.group-commit.max-wait-ms of each other
+ * (up to max-batch-size of them) are inserted by one writer thread with a
+ * single batched INSERT and committed together, so concurrent checkouts
+ * share one commit instead of paying for one each. Every caller waits for its
+ * own order; if a batch fails, its orders are retried one by one so only the
+ * offending order fails.
+ *
+ * A caller gives up after save-timeout-ms unless the writer has already
+ * taken its order into a transaction. If the writer hits an Error, every
+ * waiting caller fails and the committer stops taking orders rather than
+ * leaving them to time out one by one.
+ *
+ * Requires the in-memory reservation engine: the reservation of a grouped
+ * order is taken in memory and handed back by the caller if the insert fails.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class OrderGroupCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderGroupCommitter.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InventoryReservationEngine inventoryReservationEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.orders.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.orders.group-commit.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${app.orders.group-commit.max-wait-ms:2}")
+    private long maxWaitMs;
+
+    @Value("${app.orders.group-commit.queue-capacity:4096}")
+    private int queueCapacity;
+
+    @Value("${app.orders.group-commit.save-timeout-ms:5000}")
+    private long saveTimeoutMs;
+
+    private BlockingQueue<PendingOrder> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && !inventoryReservationEngine.isEnabled()) {
+            logger.warn("Order group commit needs app.inventory.engine.enabled=true; saving orders one by one");
+            enabled = false;
+        }
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        writer = new Thread(this::writeLoop, "order-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Order group commit enabled: up to {} orders per commit, {} ms window", maxBatchSize, maxWaitMs);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+
+        // Nothing will write the orders still queued
+        List<PendingOrder> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        failAll(queued, new RuntimeException("Shutting down"));
+    }
+
+    /**
+     * Whether orders are saved through the group commit writer
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Save an order as part of the next group commit and wait until it is committed
+     */
+    public Order save(Order order) {
+        PendingOrder pending = new PendingOrder(order);
+        if (!running) {
+            throw new RuntimeException("Order group commit has stopped, orders cannot be saved");
+        }
+        if (!queue.offer(pending)) {
+            throw new RuntimeException("Too many orders waiting to be saved, please try again shortly");
+        }
+
+        try {
+            return pending.result.get(saveTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.claimed.compareAndSet(false, true)) {
+                // The writer will skip it, so the caller can safely hand back the reservation
+                throw new RuntimeException("Timed out waiting for the order to be saved, please try again shortly");
+            }
+            // Already inside a transaction, whose outcome the writer always reports
+            return awaitWritten(pending);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.claimed.compareAndSet(false, true)) {
+                throw new RuntimeException("Interrupted while waiting for the order to be saved");
+            }
+            return awaitWritten(pending);
+        }
+    }
+
+    private static Order awaitWritten(PendingOrder pending) {
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                claim(batch, queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    PendingOrder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    claim(batch, next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down; still write what was claimed
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            try {
+                write(batch);
+            } catch (Throwable e) {
+                logger.error("Order group commit writer failed, no longer accepting orders", e);
+                running = false;
+                failAll(batch, e);
+                List<PendingOrder> queued = new ArrayList<>();
+                queue.drainTo(queued);
+                failAll(queued, e);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private static void claim(List<PendingOrder> batch, PendingOrder pending) {
+        // A caller that timed out has claimed its order already
+        if (pending.claimed.compareAndSet(false, true)) {
+            batch.add(pending);
+        }
+    }
+
+    private static void failAll(List<PendingOrder> pendings, Throwable cause) {
+        for (PendingOrder pending : pendings) {
+            pending.claimed.set(true);
+            pending.result.completeExceptionally(new RuntimeException("Order group commit failed", cause));
+        }
+    }
+
+    private void write(List<PendingOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        batch.forEach(pending -> orders.add(pending.order));
+        try {
+            // Grouped orders have their reservation applied by the engine's next flush
+            transactionTemplate.executeWithoutResult(status -> orderRepository.saveAll(orders, false));
+            batch.forEach(pending -> pending.result.complete(pending.order));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            logger.warn("Group commit of {} orders failed, saving them one by one: {}", batch.size(), e.getMessage());
+        }
+
+        for (PendingOrder pending : batch) {
+            pending.order.setOrderId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> orderRepository.save(pending.order, false));
+                pending.result.complete(pending.order);
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class PendingOrder {
+        private final Order order;
+        private final CompletableFuture<Order> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingOrder(Order order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.grocery.ordering.service;
+
+/**
+ * An order that was not admitted, with the reason it was turned away
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+public class OrderRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Why an order was rejected; the name is returned to clients as the error code
+     */
+    public enum Reason {
+        CUSTOMER_NOT_FOUND,
+        PRODUCT_NOT_FOUND,
+        INVALID_QUANTITY,
+        INVALID_AMOUNT,
+        INSUFFICIENT_STOCK
+    }
+
+    private final Reason reason;
+    private final Integer availableQuantity;
+
+    public OrderRejectedException(Reason reason, String message) {
+        this(reason, message, null);
+    }
+
+    public OrderRejectedException(Reason reason, String message, Integer availableQuantity) {
+        super(message);
+        this.reason = reason;
+        this.availableQuantity = availableQuantity;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Quantity that could have been reserved, for INSUFFICIENT_STOCK rejections
+     */
+    public Integer getAvailableQuantity() {
+        return availableQuantity;
+    }
+}
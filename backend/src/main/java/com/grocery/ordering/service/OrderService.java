@@ -1,17 +1,34 @@
 package com.grocery.ordering.service;
 
+import com.grocery.ordering.config.ReadYourWrites;
+import com.grocery.ordering.dto.CheckoutRequest.CartItem;
+import com.grocery.ordering.dto.CursorPage;
+import com.grocery.ordering.dto.OrderCursor;
 import com.grocery.ordering.model.Order;
 import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.model.OrderItem;
 import com.grocery.ordering.model.Product;
+import com.grocery.ordering.repository.OrderItemRepository;
 import com.grocery.ordering.repository.OrderRepository;
+import com.grocery.ordering.repository.OrderRepository.OrderFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service layer for Order operations
@@ -23,6 +40,8 @@ import java.util.Optional;
 @Transactional
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -32,58 +51,187 @@ public class OrderService {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${app.orders.stream-fetch-size:500}")
+    private int streamFetchSize;
+
+    @Autowired
+    private InventoryReservationEngine inventoryReservationEngine;
+
+    @Autowired
+    private OrderStatisticsTracker orderStatisticsTracker;
+
+    @Autowired
+    private OrderAnalyticsSnapshot orderAnalyticsSnapshot;
+
+    @Autowired
+    private OrderGroupCommitter orderGroupCommitter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
     /**
      * Create a new order with validation
+     * With group commit enabled the order is saved outside any transaction of
+     * its own, in a batch with the orders placed at the same time. The
+     * customer's reads then stay on the primary until replicas have caught up.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order createOrder(Order order) {
-        // Validate customer exists
-        if (!customerService.customerExists(order.getCustomerId())) {
-            throw new RuntimeException("Customer not found with ID: " + order.getCustomerId());
-        }
+        Order savedOrder = orderGroupCommitter.isEnabled()
+            ? createOrderGroupCommitted(order)
+            : new TransactionTemplate(transactionManager).execute(status -> createOrderInTransaction(order));
+        readYourWrites.recordWrite(savedOrder.getCustomerId());
+        return savedOrder;
+    }
+
+    private Order createOrderInTransaction(Order order) {
+        prepareNewOrder(order);
 
-        // Validate product exists
-        Optional<Product> productOpt = productService.findById(order.getProductId());
-        if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found with ID: " + order.getProductId());
+        // One statement reserves the stock (and, without the engine, checks the customer)
+        productService.reserveForOrder(order.getCustomerId(), order.getProductId(), order.getQuantityOrdered());
+
+        try {
+            // Create the order; the reservation is rolled back with the transaction if this fails
+            Order savedOrder = orderRepository.save(order, !inventoryReservationEngine.isEnabled());
+            inventoryReservationEngine.scheduleFlush(savedOrder.getOrderId());
+            orderStatisticsTracker.recordCreated(savedOrder.getStatus());
+            orderAnalyticsSnapshot.recordCreated(savedOrder);
+            return savedOrder;
+        } catch (DataIntegrityViolationException e) {
+            // The orders foreign keys are the customer check when the engine reserved the stock
+            throw productService.orderRejection(order.getCustomerId(), order.getProductId(),
+                                                order.getQuantityOrdered());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create order: " + e.getMessage());
         }
+    }
 
-        Product product = productOpt.get();
+    private Order createOrderGroupCommitted(Order order) {
+        prepareNewOrder(order);
 
-        // Validate quantity
-        if (order.getQuantityOrdered() <= 0) {
-            throw new RuntimeException("Quantity ordered must be greater than 0");
+        Runnable releaseReservation = productService.reserveProductQuantityDetached(order.getProductId(),
+                                                                                   order.getQuantityOrdered());
+        Order savedOrder;
+        try {
+            savedOrder = orderGroupCommitter.save(order);
+        } catch (DataIntegrityViolationException e) {
+            releaseReservation.run();
+            throw productService.orderRejection(order.getCustomerId(), order.getProductId(),
+                                                order.getQuantityOrdered());
+        } catch (Exception e) {
+            releaseReservation.run();
+            throw new RuntimeException("Failed to create order: " + e.getMessage());
         }
 
-        // Check product availability
-        if (!productService.isProductAvailable(order.getProductId(), order.getQuantityOrdered())) {
-            int availableQuantity = productService.getAvailableQuantity(order.getProductId());
-            throw new RuntimeException("Insufficient quantity available. Available: " + availableQuantity + 
-                                     ", Requested: " + order.getQuantityOrdered());
+        // Committed already, so these take effect immediately
+        inventoryReservationEngine.scheduleFlush(savedOrder.getOrderId());
+        orderStatisticsTracker.recordCreated(savedOrder.getStatus());
+        orderAnalyticsSnapshot.recordCreated(savedOrder);
+        return savedOrder;
+    }
+
+    /**
+     * Check the quantity and fill in the order amount
+     * Customer and product existence are left to the reservation and the
+     * insert; the price comes from the product cache.
+     */
+    private void prepareNewOrder(Order order) {
+        // Validate quantity
+        if (order.getQuantityOrdered() == null || order.getQuantityOrdered() <= 0) {
+            throw new OrderRejectedException(OrderRejectedException.Reason.INVALID_QUANTITY,
+                                             "Quantity ordered must be greater than 0");
         }
 
         // Calculate order amount if not provided
         if (order.getOrderAmount() == null) {
-            BigDecimal totalAmount = product.getPrice().multiply(new BigDecimal(order.getQuantityOrdered()));
-            order.setOrderAmount(totalAmount);
+            Product product = productService.findById(order.getProductId())
+                .orElseThrow(() -> new OrderRejectedException(OrderRejectedException.Reason.PRODUCT_NOT_FOUND,
+                                                              "Product not found with ID: " + order.getProductId()));
+            order.setOrderAmount(product.getPrice().multiply(new BigDecimal(order.getQuantityOrdered())));
         }
 
         // Validate order amount
         if (order.getOrderAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new OrderRejectedException(OrderRejectedException.Reason.INVALID_AMOUNT,
+                                             "Order amount must be greater than 0");
+        }
+    }
+
+    /**
+     * Check out a multi-item cart as a single order in one transaction
+     */
+    public Order checkout(String customerId, List<CartItem> cartItems) {
+        if (cartItems == null || cartItems.isEmpty()) {
+            throw new RuntimeException("Cart must contain at least one item");
+        }
+
+        // Merge repeated products into one line each, keeping cart order
+        Map<Integer, Integer> quantitiesByProduct = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItems) {
+            if (cartItem.getProductId() == null) {
+                throw new RuntimeException("Product ID is required");
+            }
+            if (cartItem.getQuantity() == null || cartItem.getQuantity() <= 0) {
+                throw new RuntimeException("Quantity ordered must be greater than 0");
+            }
+            quantitiesByProduct.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+        }
+
+        // Validate customer exists
+        if (!customerService.customerExists(customerId)) {
+            throw new RuntimeException("Customer not found with ID: " + customerId);
+        }
+
+        // Validate all products with one query
+        Map<Integer, Product> productsById = new HashMap<>();
+        for (Product product : productService.findAllByIds(quantitiesByProduct.keySet())) {
+            productsById.put(product.getProductId(), product);
+        }
+
+        List<OrderItem> items = new ArrayList<>(quantitiesByProduct.size());
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int totalQuantity = 0;
+        for (Map.Entry<Integer, Integer> entry : quantitiesByProduct.entrySet()) {
+            Product product = productsById.get(entry.getKey());
+            if (product == null) {
+                throw new RuntimeException("Product not found with ID: " + entry.getKey());
+            }
+            OrderItem item = new OrderItem(product.getProductId(), entry.getValue(), product.getPrice());
+            item.setProductName(product.getProductName());
+            items.add(item);
+            totalAmount = totalAmount.add(item.getLineAmount());
+            totalQuantity += entry.getValue();
+        }
+
+        if (totalAmount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new RuntimeException("Order amount must be greater than 0");
         }
 
-        // Reserve product quantity
-        if (!productService.reserveProductQuantity(order.getProductId(), order.getQuantityOrdered())) {
-            throw new RuntimeException("Failed to reserve product quantity");
+        // Reserve every line; any shortfall rolls back the whole cart
+        Optional<Integer> rejected = inventoryReservationEngine.reserveAll(quantitiesByProduct);
+        if (rejected.isPresent()) {
+            Integer productId = rejected.get();
+            throw new RuntimeException("Insufficient quantity available for product " + productId +
+                                     ". Available: " + productService.getAvailableQuantity(productId) +
+                                     ", Requested: " + quantitiesByProduct.get(productId));
         }
 
+        Order order = new Order(customerId, null, totalAmount, totalQuantity);
         try {
-            // Create the order
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = orderRepository.save(order, !inventoryReservationEngine.isEnabled());
+            savedOrder.setItems(orderItemRepository.saveAll(savedOrder.getOrderId(), items));
+            inventoryReservationEngine.scheduleFlush(savedOrder.getOrderId());
+            orderStatisticsTracker.recordCreated(savedOrder.getStatus());
+            orderAnalyticsSnapshot.recordCreated(savedOrder);
+            readYourWrites.recordWrite(customerId);
             return savedOrder;
         } catch (Exception e) {
-            // Release reserved quantity if order creation fails
-            productService.releaseReservedQuantity(order.getProductId(), order.getQuantityOrdered());
             throw new RuntimeException("Failed to create order: " + e.getMessage());
         }
     }
@@ -97,7 +245,62 @@ public class OrderService {
             throw new RuntimeException("Customer not found with ID: " + customerId);
         }
         
-        return orderRepository.getCustomerOrderDetails(customerId);
+        return attachItems(orderRepository.getCustomerOrderDetails(customerId));
+    }
+
+    /**
+     * Get one page of a customer's order details, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getCustomerOrderDetails(String customerId, String cursor, int limit) {
+        if (!customerService.customerExists(customerId)) {
+            throw new RuntimeException("Customer not found with ID: " + customerId);
+        }
+
+        return getOrdersPage(OrderFilter.all().customerId(customerId), cursor, limit);
+    }
+
+    /**
+     * Get one page of orders with details, newest first (keyset pagination)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersPage(OrderFilter filter, String cursor, int limit) {
+        if (filter.getStartDate() != null && filter.getEndDate() != null
+                && filter.getStartDate().isAfter(filter.getEndDate())) {
+            throw new RuntimeException("Start date cannot be after end date");
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Order> orders = orderRepository.findPageWithDetails(filter, OrderCursor.decode(cursor), pageSize + 1);
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+            Order last = orders.get(pageSize - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getOrderId()).encode();
+        }
+        return new CursorPage<>(attachItems(orders), nextCursor, pageSize);
+    }
+
+    /**
+     * Stream orders with details, newest first, one at a time (admin only)
+     * Cart items are loaded with one query per fetched batch of orders.
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(OrderFilter filter, Consumer<Order> consumer) {
+        List<Order> batch = new ArrayList<>(streamFetchSize);
+        orderRepository.streamWithDetails(filter, streamFetchSize, order -> {
+            batch.add(order);
+            if (batch.size() == streamFetchSize) {
+                emitWithItems(batch, consumer);
+            }
+        });
+        emitWithItems(batch, consumer);
+    }
+
+    private void emitWithItems(List<Order> batch, Consumer<Order> consumer) {
+        attachItems(batch).forEach(consumer);
+        batch.clear();
     }
 
     /**
@@ -105,7 +308,9 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Optional<Order> findById(Integer orderId) {
-        return orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        orderOpt.ifPresent(order -> attachItems(List.of(order)));
+        return orderOpt;
     }
 
     /**
@@ -117,7 +322,7 @@ public class OrderService {
             throw new RuntimeException("Customer not found with ID: " + customerId);
         }
         
-        return orderRepository.findByCustomerId(customerId);
+        return attachItems(orderRepository.findByCustomerId(customerId));
     }
 
     /**
@@ -125,7 +330,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public List<Order> getAllOrdersWithDetails() {
-        return orderRepository.findAllWithDetails();
+        return attachItems(orderRepository.findAllWithDetails());
     }
 
     /**
@@ -145,12 +350,19 @@ public class OrderService {
             throw new RuntimeException("Invalid status transition from " + currentStatus + " to " + newStatus);
         }
 
+        // Only the request (or expiry run) that changes the status releases the reservation
+        if (!orderRepository.updateOrderStatus(orderId, currentStatus, newStatus)) {
+            throw new RuntimeException("Order " + orderId + " is no longer " + currentStatus + ", please retry");
+        }
+
         // Handle quantity release for cancelled orders
         if (newStatus == OrderStatus.CANCELLED && currentStatus != OrderStatus.CANCELLED) {
-            productService.releaseReservedQuantity(order.getProductId(), order.getQuantityOrdered());
+            releaseReservation(order);
         }
 
-        return orderRepository.updateOrderStatus(orderId, newStatus);
+        orderStatisticsTracker.recordTransition(currentStatus, newStatus, order.getOrderAmount());
+        orderAnalyticsSnapshot.recordStatus(orderId, newStatus);
+        return true;
     }
 
     /**
@@ -158,7 +370,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public List<Order> findByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status);
+        return attachItems(orderRepository.findByStatus(status));
     }
 
     /**
@@ -170,7 +382,7 @@ public class OrderService {
             throw new RuntimeException("Start date cannot be after end date");
         }
         
-        return orderRepository.findByDateRange(startDate, endDate);
+        return attachItems(orderRepository.findByDateRange(startDate, endDate));
     }
 
     /**
@@ -189,11 +401,17 @@ public class OrderService {
             throw new RuntimeException("Cannot cancel order with status: " + order.getStatus());
         }
 
+        // Update status to cancelled, unless someone else changed it first
+        if (!orderRepository.updateOrderStatus(orderId, order.getStatus(), OrderStatus.CANCELLED)) {
+            throw new RuntimeException("Order " + orderId + " is no longer " + order.getStatus() + ", please retry");
+        }
+
         // Release reserved quantity
-        productService.releaseReservedQuantity(order.getProductId(), order.getQuantityOrdered());
+        releaseReservation(order);
 
-        // Update status to cancelled
-        return orderRepository.updateOrderStatus(orderId, OrderStatus.CANCELLED);
+        orderStatisticsTracker.recordTransition(order.getStatus(), OrderStatus.CANCELLED, order.getOrderAmount());
+        orderAnalyticsSnapshot.recordStatus(orderId, OrderStatus.CANCELLED);
+        return true;
     }
 
     /**
@@ -209,10 +427,15 @@ public class OrderService {
         
         // Release reserved quantity if order is not delivered or cancelled
         if (order.getStatus() != OrderStatus.DELIVERED && order.getStatus() != OrderStatus.CANCELLED) {
-            productService.releaseReservedQuantity(order.getProductId(), order.getQuantityOrdered());
+            releaseReservation(order);
         }
 
-        return orderRepository.deleteById(orderId);
+        boolean deleted = orderRepository.deleteById(orderId);
+        if (deleted) {
+            orderStatisticsTracker.recordDeleted(order.getStatus(), order.getOrderAmount());
+            orderAnalyticsSnapshot.recordDeleted(orderId);
+        }
+        return deleted;
     }
 
     /**
@@ -223,6 +446,40 @@ public class OrderService {
         return orderRepository.existsById(orderId);
     }
 
+    /**
+     * Release the quantity reserved by an order
+     */
+    private void releaseReservation(Order order) {
+        if (order.getProductId() != null) {
+            inventoryReservationEngine.release(order.getOrderId(), order.getProductId(), order.getQuantityOrdered());
+            return;
+        }
+
+        List<OrderItem> items = order.getItems() != null ? order.getItems() : orderItemRepository.findByOrderId(order.getOrderId());
+        Map<Integer, Integer> quantitiesByProduct = new HashMap<>();
+        items.forEach(item -> quantitiesByProduct.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        if (!quantitiesByProduct.isEmpty()) {
+            inventoryReservationEngine.release(order.getOrderId(), quantitiesByProduct);
+        }
+    }
+
+    /**
+     * Load the items of multi-item orders with one query
+     */
+    private List<Order> attachItems(List<Order> orders) {
+        Map<Integer, Order> multiItemOrders = new HashMap<>();
+        for (Order order : orders) {
+            if (order.getProductId() == null) {
+                order.setItems(new ArrayList<>());
+                multiItemOrders.put(order.getOrderId(), order);
+            }
+        }
+        for (OrderItem item : orderItemRepository.findByOrderIds(multiItemOrders.keySet())) {
+            multiItemOrders.get(item.getOrderId()).getItems().add(item);
+        }
+        return orders;
+    }
+
     /**
      * Validate status transition
      */
@@ -245,22 +502,21 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public OrderStatistics getOrderStatistics() {
-        List<Order> allOrders = orderRepository.findAllWithDetails();
-        
-        long totalOrders = allOrders.size();
-        long pendingOrders = allOrders.stream().filter(o -> o.getStatus() == OrderStatus.PENDING).count();
-        long confirmedOrders = allOrders.stream().filter(o -> o.getStatus() == OrderStatus.CONFIRMED).count();
-        long shippedOrders = allOrders.stream().filter(o -> o.getStatus() == OrderStatus.SHIPPED).count();
-        long deliveredOrders = allOrders.stream().filter(o -> o.getStatus() == OrderStatus.DELIVERED).count();
-        long cancelledOrders = allOrders.stream().filter(o -> o.getStatus() == OrderStatus.CANCELLED).count();
-        
-        BigDecimal totalRevenue = allOrders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .map(Order::getOrderAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return orderStatisticsTracker.getStatistics();
+    }
 
-        return new OrderStatistics(totalOrders, pendingOrders, confirmedOrders, 
-                                 shippedOrders, deliveredOrders, cancelledOrders, totalRevenue);
+    /**
+     * Aggregate orders by day, status, product or customer from the analytics snapshot (admin only)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public OrderAnalyticsSnapshot.Summary getOrderAnalytics(OrderAnalyticsSnapshot.GroupBy groupBy,
+                                                            LocalDateTime startDate, LocalDateTime endDate,
+                                                            OrderStatus status, int limit) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        return orderAnalyticsSnapshot.summarize(groupBy, startDate, endDate, status,
+                                                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 
     /**
@@ -0,0 +1,209 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.repository.OrderRepository;
+import com.grocery.ordering.repository.OrderRepository.StatusTotals;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incrementally maintained order statistics
+ * Keeps per-status order counts and delivered revenue up to date as orders
+ * change, so reading them costs O(1). A periodic reconciliation against the
+ * database corrects drift, including changes made by other nodes.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class OrderStatisticsTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatisticsTracker.class);
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLongArray countsByStatus = new AtomicLongArray(STATUSES.length);
+    private final AtomicLong deliveredRevenueCents = new AtomicLong();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private volatile boolean initialized;
+
+    // Committed status changes, indexed by [from][to]
+    private final Counter[][] transitions = new Counter[STATUSES.length][STATUSES.length];
+
+    @PostConstruct
+    public void init() {
+        for (OrderStatus from : STATUSES) {
+            for (OrderStatus to : STATUSES) {
+                if (from != to) {
+                    transitions[from.ordinal()][to.ordinal()] = Counter.builder("orders.status.transitions")
+                        .description("Committed order status changes")
+                        .tag("from", from.name())
+                        .tag("to", to.name())
+                        .register(meterRegistry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record a newly created order once its transaction commits
+     */
+    public void recordCreated(OrderStatus status) {
+        afterCommit(() -> countsByStatus.incrementAndGet(status.ordinal()));
+    }
+
+    /**
+     * Record a status change once its transaction commits
+     */
+    public void recordTransition(OrderStatus from, OrderStatus to, BigDecimal orderAmount) {
+        if (from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            transitions[from.ordinal()][to.ordinal()].increment();
+            countsByStatus.decrementAndGet(from.ordinal());
+            countsByStatus.incrementAndGet(to.ordinal());
+            if (from == OrderStatus.DELIVERED) {
+                deliveredRevenueCents.addAndGet(-toCents(orderAmount));
+            } else if (to == OrderStatus.DELIVERED) {
+                deliveredRevenueCents.addAndGet(toCents(orderAmount));
+            }
+        });
+    }
+
+    /**
+     * Record the same status change of several orders once their transaction commits
+     * Revenue is not adjusted, so neither status may be DELIVERED.
+     */
+    public void recordTransitions(OrderStatus from, OrderStatus to, int count) {
+        if (from == OrderStatus.DELIVERED || to == OrderStatus.DELIVERED) {
+            throw new IllegalArgumentException("Delivered orders change revenue; record them one by one");
+        }
+        if (from == to || count == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            transitions[from.ordinal()][to.ordinal()].increment(count);
+            countsByStatus.addAndGet(from.ordinal(), -count);
+            countsByStatus.addAndGet(to.ordinal(), count);
+        });
+    }
+
+    /**
+     * Record a deleted order once its transaction commits
+     */
+    public void recordDeleted(OrderStatus status, BigDecimal orderAmount) {
+        afterCommit(() -> {
+            countsByStatus.decrementAndGet(status.ordinal());
+            if (status == OrderStatus.DELIVERED) {
+                deliveredRevenueCents.addAndGet(-toCents(orderAmount));
+            }
+        });
+    }
+
+    /**
+     * Get the current statistics without querying orders
+     */
+    public OrderService.OrderStatistics getStatistics() {
+        if (!initialized) {
+            reconcile();
+        }
+
+        long[] counts = new long[STATUSES.length];
+        long totalOrders = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = countsByStatus.get(i);
+            totalOrders += counts[i];
+        }
+
+        return new OrderService.OrderStatistics(totalOrders,
+                counts[OrderStatus.PENDING.ordinal()],
+                counts[OrderStatus.CONFIRMED.ordinal()],
+                counts[OrderStatus.SHIPPED.ordinal()],
+                counts[OrderStatus.DELIVERED.ordinal()],
+                counts[OrderStatus.CANCELLED.ordinal()],
+                BigDecimal.valueOf(deliveredRevenueCents.get(), 2));
+    }
+
+    /**
+     * Correct the counters against one aggregate query
+     * Changes committed while the query runs are kept, so they may be counted
+     * twice until the next run; the drift is bounded by that window.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.statistics.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        // A lock rather than synchronized, so a virtual thread waiting here does not pin its carrier
+        reconcileLock.lock();
+        try {
+            applyTotals();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void applyTotals() {
+        long[] countsBefore = new long[STATUSES.length];
+        for (int i = 0; i < countsBefore.length; i++) {
+            countsBefore[i] = countsByStatus.get(i);
+        }
+        long revenueBefore = deliveredRevenueCents.get();
+
+        Map<OrderStatus, StatusTotals> totals = orderRepository.getStatusTotals();
+
+        long drift = 0;
+        for (OrderStatus status : STATUSES) {
+            StatusTotals statusTotals = totals.get(status);
+            long actual = statusTotals != null ? statusTotals.getCount() : 0;
+            long correction = actual - countsBefore[status.ordinal()];
+            countsByStatus.addAndGet(status.ordinal(), correction);
+            drift += Math.abs(correction);
+        }
+
+        StatusTotals delivered = totals.get(OrderStatus.DELIVERED);
+        long actualRevenue = delivered != null ? toCents(delivered.getAmount()) : 0;
+        deliveredRevenueCents.addAndGet(actualRevenue - revenueBefore);
+
+        if (initialized && (drift != 0 || actualRevenue != revenueBefore)) {
+            logger.info("Order statistics reconciled: {} orders and {} cents of revenue corrected",
+                        drift, actualRevenue - revenueBefore);
+        }
+        initialized = true;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
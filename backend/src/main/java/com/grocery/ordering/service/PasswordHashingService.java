@@ -0,0 +1,276 @@
+package com.grocery.ordering.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password hashing off the request threads
+ * BCrypt work runs on a dedicated, bounded pool. When every worker is busy and
+ * the queue is full, requests are rejected immediately instead of piling up,
+ * so a login storm cannot take over the threads that serve orders.
+ *
+ * The BCrypt cost is configured per user type; a hash made with a different
+ * cost is reported by {@link #needsRehash} so it can be upgraded on login.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final Pattern BCRYPT_PREFIX = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    /**
+     * Kinds of account with their own BCrypt cost
+     */
+    public enum UserType {
+        ADMIN, CUSTOMER
+    }
+
+    @Value("${app.security.password.admin-cost:10}")
+    private int adminCost;
+
+    @Value("${app.security.password.customer-cost:10}")
+    private int customerCost;
+
+    @Value("${app.security.password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.security.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.password.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final Map<UserType, BCryptPasswordEncoder> encoders = new EnumMap<>(UserType.class);
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private final LongAdder rejections = new LongAdder();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        encoders.put(UserType.ADMIN, new BCryptPasswordEncoder(adminCost));
+        encoders.put(UserType.CUSTOMER, new BCryptPasswordEncoder(customerCost));
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hash a password with the cost configured for the user type
+     */
+    public String encode(UserType userType, String rawPassword) {
+        return submit(() -> encoders.get(userType).encode(rawPassword));
+    }
+
+    /**
+     * Check a password against a stored hash
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        // Any encoder verifies any cost: the cost is read from the hash itself
+        return submit(() -> encoders.get(UserType.CUSTOMER).matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether a stored hash was made with a different cost than the configured one
+     */
+    public boolean needsRehash(UserType userType, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PREFIX.matcher(encodedPassword);
+        int expectedCost = userType == UserType.ADMIN ? adminCost : customerCost;
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != expectedCost;
+    }
+
+    /**
+     * Current pool state and hash latency
+     */
+    public HashingStatistics getStatistics() {
+        return new HashingStatistics(executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                                     queueCapacity, rejections.sum(), latency.count(), latency.meanMillis(),
+                                     latency.percentileMillis(0.50), latency.percentileMillis(0.99),
+                                     latency.maxMillis(), adminCost, customerCost);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    latency.record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new HashingRejectedException("Too many concurrent logins, please try again shortly");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new HashingRejectedException("Password check timed out, please try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Thrown when the hashing pool is saturated; callers should answer 503
+     */
+    public static class HashingRejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public HashingRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Lock-free latency histogram with power-of-two microsecond buckets
+     */
+    private static class LatencyRecorder {
+        private final AtomicLongArray buckets = new AtomicLongArray(40);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(1, nanos / 1000);
+            buckets.incrementAndGet(Math.min(buckets.length() - 1, 63 - Long.numberOfLeadingZeros(micros)));
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double meanMillis() {
+            long samples = count.sum();
+            return samples == 0 ? 0 : totalNanos.sum() / (double) samples / 1_000_000;
+        }
+
+        double maxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile
+         */
+        double percentileMillis(double percentile) {
+            long samples = count.sum();
+            if (samples == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(samples * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return (1L << (i + 1)) / 1000.0;
+                }
+            }
+            return maxMillis();
+        }
+    }
+
+    /**
+     * Hashing pool statistics exposed to administrators
+     */
+    public static class HashingStatistics {
+        private final int poolSize;
+        private final int activeThreads;
+        private final int queuedTasks;
+        private final int queueCapacity;
+        private final long rejectedTasks;
+        private final long completedHashes;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+        private final int adminCost;
+        private final int customerCost;
+
+        public HashingStatistics(int poolSize, int activeThreads, int queuedTasks, int queueCapacity,
+                                 long rejectedTasks, long completedHashes, double meanMillis, double p50Millis,
+                                 double p99Millis, double maxMillis, int adminCost, int customerCost) {
+            this.poolSize = poolSize;
+            this.activeThreads = activeThreads;
+            this.queuedTasks = queuedTasks;
+            this.queueCapacity = queueCapacity;
+            this.rejectedTasks = rejectedTasks;
+            this.completedHashes = completedHashes;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+            this.adminCost = adminCost;
+            this.customerCost = customerCost;
+        }
+
+        // Getters
+        public int getPoolSize() { return poolSize; }
+        public int getActiveThreads() { return activeThreads; }
+        public int getQueuedTasks() { return queuedTasks; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public long getRejectedTasks() { return rejectedTasks; }
+        public long getCompletedHashes() { return completedHashes; }
+        public double getMeanMillis() { return meanMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+        public int getAdminCost() { return adminCost; }
+        public int getCustomerCost() { return customerCost; }
+    }
+}
@@ -0,0 +1,287 @@
+package com.grocery.ordering.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.grocery.ordering.config.ReplicaRoutingDataSource;
+import com.grocery.ordering.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of products in front of the products table
+ * Products are held in a size-bounded Caffeine cache (W-TinyLFU eviction,
+ * weighed by their approximate footprint). The all/available listings only
+ * cache product IDs in order, so a reservation invalidates one product rather
+ * than every listing; listings are dropped when their membership or order can
+ * change (register, update, quantity change, delete).
+ *
+ * Invalidation happens immediately and again when the surrounding transaction
+ * completes, so a read racing an uncommitted write cannot keep a stale copy.
+ * Invalidations that change a product itself or the listings also bump the
+ * catalogue version, even with the cache disabled, so responses rendered
+ * from an older state are not served again. Reservation-only invalidations
+ * do not: under order traffic they would discard every cached response
+ * every flush, so cached responses may show availability up to
+ * app.products.response-cache.expire-after-write-ms old.
+ * Misses are loaded from the primary even inside read-only transactions, so
+ * a lagging read replica cannot leave a stale copy behind.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class ProductCache {
+
+    private static final String ALL = "all";
+    private static final String AVAILABLE = "available";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+
+    @Value("${app.products.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.products.cache.maximum-weight-bytes:8388608}")
+    private long maximumWeightBytes;
+
+    @Value("${app.products.cache.expire-after-write-ms:300000}")
+    private long expireAfterWriteMs;
+
+    private Cache<Integer, Product> products;
+    private Cache<String, List<Integer>> listings;
+
+    @PostConstruct
+    public void init() {
+        products = Caffeine.newBuilder()
+            .maximumWeight(maximumWeightBytes)
+            .weigher((Integer productId, Product product) -> weigh(product))
+            .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+            .recordStats()
+            .build();
+        listings = Caffeine.newBuilder()
+            .maximumSize(2)
+            .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "product-listings");
+    }
+
+    /**
+     * Get a product, loading it on a miss
+     */
+    public Optional<Product> get(Integer productId, Function<Integer, Optional<Product>> loader) {
+        if (!enabled) {
+            return loader.apply(productId);
+        }
+        Product product = products.get(productId, id -> ReplicaRoutingDataSource.onPrimary(() -> loader.apply(id))
+            .map(Product::new)
+            .orElse(null));
+        return Optional.ofNullable(product).map(Product::new);
+    }
+
+    /**
+     * Get all products, loading the listing or any missing product on a miss
+     */
+    public List<Product> getAll(Supplier<List<Product>> loader,
+                                Function<Collection<Integer>, List<Product>> bulkLoader) {
+        return getListing(ALL, loader, bulkLoader);
+    }
+
+    /**
+     * Get products in stock, loading the listing or any missing product on a miss
+     */
+    public List<Product> getAvailable(Supplier<List<Product>> loader,
+                                      Function<Collection<Integer>, List<Product>> bulkLoader) {
+        return getListing(AVAILABLE, loader, bulkLoader);
+    }
+
+    /**
+     * Drop a product whose stock or reservations changed
+     */
+    public void invalidate(Integer productId) {
+        if (enabled) {
+            products.invalidate(productId);
+            onCompletion(() -> products.invalidate(productId));
+        }
+    }
+
+    /**
+     * Drop several products whose reservations changed
+     */
+    public void invalidateAll(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (enabled) {
+            List<Integer> keys = List.copyOf(productIds);
+            products.invalidateAll(keys);
+            onCompletion(() -> products.invalidateAll(keys));
+        }
+    }
+
+    /**
+     * Drop a product together with the listings it may appear in
+     */
+    public void invalidateWithListings(Integer productId) {
+        catalogueVersion.bump();
+        if (enabled) {
+            if (productId != null) {
+                products.invalidate(productId);
+                onCompletion(() -> products.invalidate(productId));
+            }
+            listings.invalidateAll();
+            onCompletion(listings::invalidateAll);
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of the product and listing caches
+     */
+    public CacheStatistics getStatistics() {
+        long weightedSize = products.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+        return new CacheStatistics(enabled, products.stats(), products.estimatedSize(), weightedSize,
+                                   maximumWeightBytes, listings.stats());
+    }
+
+    private List<Product> getListing(String key, Supplier<List<Product>> loader,
+                                     Function<Collection<Integer>, List<Product>> bulkLoader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Map<Integer, Product> loaded = new HashMap<>();
+        List<Integer> productIds = listings.get(key, k -> {
+            List<Integer> ids = new ArrayList<>();
+            for (Product product : ReplicaRoutingDataSource.onPrimary(loader)) {
+                ids.add(product.getProductId());
+                loaded.put(product.getProductId(), product);
+            }
+            return ids;
+        });
+
+        // Fresh rows from a listing load are reused instead of being looked up again
+        Map<Integer, Product> cached = products.getAll(productIds, missing -> load(missing, loaded, bulkLoader));
+
+        List<Product> result = new ArrayList<>(productIds.size());
+        for (Integer productId : productIds) {
+            Product product = cached.get(productId);
+            if (product != null) {
+                result.add(new Product(product));
+            }
+        }
+        return result;
+    }
+
+    private static Map<Integer, Product> load(Set<? extends Integer> missing, Map<Integer, Product> loaded,
+                                              Function<Collection<Integer>, List<Product>> bulkLoader) {
+        Map<Integer, Product> result = new HashMap<>();
+        List<Integer> toLoad = new ArrayList<>();
+        for (Integer productId : missing) {
+            Product product = loaded.get(productId);
+            if (product != null) {
+                result.put(productId, new Product(product));
+            } else {
+                toLoad.add(productId);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            for (Product product : ReplicaRoutingDataSource.onPrimary(() -> bulkLoader.apply(toLoad))) {
+                result.put(product.getProductId(), new Product(product));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap footprint of a cached product in bytes
+     */
+    private static int weigh(Product product) {
+        int weight = 160;
+        if (product.getProductName() != null) {
+            weight += 40 + product.getProductName().length() * 2;
+        }
+        if (product.getCustomerId() != null) {
+            weight += 40 + product.getCustomerId().length() * 2;
+        }
+        return weight;
+    }
+
+    private static void onCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Cache counters exposed to administrators
+     */
+    public static class CacheStatistics {
+        private final boolean enabled;
+        private final long hitCount;
+        private final long missCount;
+        private final double hitRate;
+        private final long evictionCount;
+        private final long evictionWeight;
+        private final long size;
+        private final long weightedSize;
+        private final long maximumWeight;
+        private final long listingHitCount;
+        private final long listingMissCount;
+
+        public CacheStatistics(boolean enabled, CacheStats productStats, long size, long weightedSize,
+                               long maximumWeight, CacheStats listingStats) {
+            this.enabled = enabled;
+            this.hitCount = productStats.hitCount();
+            this.missCount = productStats.missCount();
+            this.hitRate = productStats.hitRate();
+            this.evictionCount = productStats.evictionCount();
+            this.evictionWeight = productStats.evictionWeight();
+            this.size = size;
+            this.weightedSize = weightedSize;
+            this.maximumWeight = maximumWeight;
+            this.listingHitCount = listingStats.hitCount();
+            this.listingMissCount = listingStats.missCount();
+        }
+
+        // Getters
+        public boolean isEnabled() { return enabled; }
+        public long getHitCount() { return hitCount; }
+        public long getMissCount() { return missCount; }
+        public double getHitRate() { return hitRate; }
+        public long getEvictionCount() { return evictionCount; }
+        public long getEvictionWeight() { return evictionWeight; }
+        public long getSize() { return size; }
+        public long getWeightedSize() { return weightedSize; }
+        public long getMaximumWeight() { return maximumWeight; }
+        public long getListingHitCount() { return listingHitCount; }
+        public long getListingMissCount() { return listingMissCount; }
+    }
+}
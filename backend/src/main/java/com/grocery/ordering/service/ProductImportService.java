@@ -0,0 +1,279 @@
+package com.grocery.ordering.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocery.ordering.model.Product;
+import com.grocery.ordering.service.ProductService.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk product import from CSV or NDJSON feeds (admin only)
+ * The feed is read line by line and applied in chunks of
+ * app.products.import.chunk-size rows, each in a transaction of its own
+ * through ProductService.importProducts. A chunk the database rejects is
+ * applied again row by row, so one bad row only fails itself. Rows that
+ * cannot be parsed or fail validation are reported with their line number;
+ * the rest of the feed is applied.
+ *
+ * CSV feeds start with a header naming their columns: productId,
+ * productName, price, quantity, reserved, customerId (in any order, case and
+ * underscores ignored). Empty cells and missing NDJSON fields leave the
+ * product's value unchanged; rows without a productId are new products.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.products.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Import a CSV feed
+     */
+    public ImportReport importCsv(Reader feed) throws IOException {
+        BufferedReader reader = new BufferedReader(feed);
+        String header = reader.readLine();
+        if (header == null) {
+            throw new RuntimeException("CSV feed is empty");
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : splitCsv(header)) {
+            columns.add(column.replace("_", "").trim().toLowerCase(Locale.ROOT));
+        }
+        return importLines(reader, 2, line -> csvRow(columns, splitCsv(line)));
+    }
+
+    /**
+     * Import an NDJSON feed with one product object per line
+     */
+    public ImportReport importNdjson(Reader feed) throws IOException {
+        return importLines(new BufferedReader(feed), 1, line -> {
+            try {
+                JsonNode row = objectMapper.readTree(line);
+                Product product = objectMapper.treeToValue(row, Product.class);
+                if (!row.has("reserved")) {
+                    // Product defaults reserved to 0, which would overwrite it
+                    product.setReserved(null);
+                }
+                return product;
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private ImportReport importLines(BufferedReader reader, int firstLine, RowParser parser) throws IOException {
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkLines = new ArrayList<>(chunkSize);
+
+        int lineNumber = firstLine - 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.rowsRead++;
+            try {
+                chunk.add(parser.parse(line));
+                chunkLines.add(lineNumber);
+            } catch (RuntimeException e) {
+                report.reject(lineNumber, null, e.getMessage(), maxReportedErrors);
+            }
+            if (chunk.size() == chunkSize) {
+                applyChunk(chunk, chunkLines, report);
+                chunk.clear();
+                chunkLines.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, chunkLines, report);
+        }
+
+        report.durationMs = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Product import: {} rows read, {} inserted, {} updated, {} rejected in {} ms",
+                    report.rowsRead, report.inserted, report.updated, report.rejected, report.durationMs);
+        return report;
+    }
+
+    private void applyChunk(List<Product> chunk, List<Integer> lines, ImportReport report) {
+        try {
+            record(productService.importProducts(chunk), chunk, lines, 0, report);
+        } catch (RuntimeException e) {
+            logger.warn("Product import chunk at line {} failed, applying its rows one by one: {}",
+                        lines.get(0), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    record(productService.importProducts(List.of(chunk.get(i))), chunk, lines, i, report);
+                } catch (RuntimeException rowError) {
+                    report.reject(lines.get(i), chunk.get(i).getProductId(), rowError.getMessage(), maxReportedErrors);
+                }
+            }
+        }
+    }
+
+    private void record(ImportResult result, List<Product> chunk, List<Integer> lines, int offset,
+                        ImportReport report) {
+        report.inserted += result.getInserted();
+        report.updated += result.getUpdated();
+        result.getErrors().forEach((index, message) -> report.reject(lines.get(offset + index),
+                                                                     chunk.get(offset + index).getProductId(),
+                                                                     message, maxReportedErrors));
+    }
+
+    private static Product csvRow(List<String> columns, List<String> cells) {
+        if (cells.size() > columns.size()) {
+            throw new RuntimeException("Expected at most " + columns.size() + " cells, got " + cells.size());
+        }
+        Product product = new Product();
+        product.setReserved(null);
+        for (int i = 0; i < cells.size(); i++) {
+            String cell = cells.get(i).trim();
+            if (cell.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "productid" -> product.setProductId(parseInt("product ID", cell));
+                case "productname" -> product.setProductName(cell);
+                case "price" -> product.setPrice(parseDecimal(cell));
+                case "quantity" -> product.setQuantity(parseInt("quantity", cell));
+                case "reserved" -> product.setReserved(parseInt("reserved quantity", cell));
+                case "customerid" -> product.setCustomerId(cell);
+                default -> {
+                    // Columns the import does not know are ignored
+                }
+            }
+        }
+        return product;
+    }
+
+    private static Integer parseInt(String name, String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid price: " + value);
+        }
+    }
+
+    /**
+     * Split one CSV line; fields may be quoted, with "" for a quote inside
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Product parse(String line);
+    }
+
+    /**
+     * Row counts of an import and the first rejected rows
+     */
+    public static class ImportReport {
+        private int rowsRead;
+        private int inserted;
+        private int updated;
+        private int rejected;
+        private long durationMs;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void reject(int line, Integer productId, String message, int maxReported) {
+            rejected++;
+            if (errors.size() < maxReported) {
+                errors.add(new RowError(line, productId, message));
+            }
+        }
+
+        public int getRowsRead() { return rowsRead; }
+        public int getInserted() { return inserted; }
+        public int getUpdated() { return updated; }
+        public int getRejected() { return rejected; }
+        public long getDurationMs() { return durationMs; }
+        public List<RowError> getErrors() { return errors; }
+    }
+
+    /**
+     * A row that was not applied
+     */
+    public static class RowError {
+        private final int line;
+        private final Integer productId;
+        private final String message;
+
+        public RowError(int line, Integer productId, String message) {
+            this.line = line;
+            this.productId = productId;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+        public Integer getProductId() { return productId; }
+        public String getMessage() { return message; }
+    }
+}
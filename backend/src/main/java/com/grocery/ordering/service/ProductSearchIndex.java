@@ -0,0 +1,341 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Product;
+import com.grocery.ordering.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory inverted index over the product catalogue
+ * Every product name is split into all 1-, 2- and 3-character grams. A query
+ * of up to three characters is a single posting lookup; longer queries
+ * intersect the postings of their trigrams and verify the candidates, so the
+ * results match LOWER(product_name) LIKE '%term%' without scanning products.
+ *
+ * Results are ranked exact name first, then name prefix, then word prefix,
+ * then any other substring, and by name within each rank. Stock figures are
+ * those of the last catalogue change; the periodic rebuild also picks up
+ * reservations and changes made by other nodes.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int MAX_GRAM = 3;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.products.search-index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Whether the index has been built and can answer searches
+     */
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    /**
+     * Find products in stock whose name contains the term, best matches first
+     */
+    public List<Product> search(String term) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Product search index is not built");
+        }
+
+        String query = normalize(term);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Integer> candidates = current.candidates(query);
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (Integer productId : candidates) {
+            Entry entry = current.entries.get(productId);
+            if (entry == null || entry.product.getQuantity() == null || entry.product.getQuantity() <= 0) {
+                continue;
+            }
+            int rank = rank(entry.normalizedName, query);
+            if (rank >= 0) {
+                matches.add(new Match(entry, rank));
+            }
+        }
+
+        matches.sort(Comparator.comparingInt((Match m) -> m.rank)
+            .thenComparing(m -> m.entry.normalizedName)
+            .thenComparing(m -> m.entry.product.getProductId()));
+
+        List<Product> products = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            products.add(new Product(match.entry.product));
+        }
+        return products;
+    }
+
+    /**
+     * Add or replace a product once the current transaction commits
+     */
+    public void index(Product product) {
+        if (enabled && product != null && product.getProductId() != null) {
+            Product copy = new Product(product);
+            afterCommit(() -> upsert(copy));
+        }
+    }
+
+    /**
+     * Remove a product once the current transaction commits
+     */
+    public void remove(Integer productId) {
+        if (enabled && productId != null) {
+            afterCommit(() -> delete(productId));
+        }
+    }
+
+    /**
+     * Record a quantity change once the current transaction commits
+     */
+    public void updateQuantity(Integer productId, Integer quantity) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        afterCommit(() -> withWriteLock(() -> {
+            Snapshot current = snapshot;
+            Entry entry = current != null ? current.entries.get(productId) : null;
+            if (entry != null) {
+                Product copy = new Product(entry.product);
+                copy.setQuantity(quantity);
+                current.entries.put(productId, new Entry(copy));
+            }
+        }));
+    }
+
+    /**
+     * Build the index from the products table once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Periodically rebuild the index to pick up changes made outside this service
+     */
+    @Scheduled(fixedDelayString = "${app.products.search-index.refresh-interval-ms:300000}",
+               initialDelayString = "${app.products.search-index.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (enabled && snapshot != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Load the catalogue and swap in a fresh index
+     * Writers wait on the same lock, so a change committed during the load is
+     * applied to the new index rather than lost with the old one.
+     */
+    private void rebuild() {
+        withWriteLock(() -> {
+            long start = System.nanoTime();
+            Snapshot fresh = new Snapshot();
+            List<Product> products = productRepository.findAll();
+            for (Product product : products) {
+                fresh.add(new Entry(product));
+            }
+            snapshot = fresh;
+            logger.info("Product search index built with {} products and {} grams in {} ms",
+                        products.size(), fresh.postings.size(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    private void upsert(Product product) {
+        withWriteLock(() -> {
+            Snapshot current = snapshot;
+            if (current != null) {
+                current.remove(product.getProductId());
+                current.add(new Entry(product));
+            }
+        });
+    }
+
+    private void delete(Integer productId) {
+        withWriteLock(() -> {
+            Snapshot current = snapshot;
+            if (current != null) {
+                current.remove(productId);
+            }
+        });
+    }
+
+    /**
+     * Serialise writers; a lock rather than synchronized because the rebuild
+     * queries the database and must not pin a virtual thread's carrier
+     */
+    private void withWriteLock(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rank of a name for a query, or -1 when it does not contain the query
+     */
+    private static int rank(String name, String query) {
+        int position = name.indexOf(query);
+        if (position < 0) {
+            return -1;
+        }
+        if (position == 0) {
+            return name.length() == query.length() ? 0 : 1;
+        }
+        // Look for the query at the start of any later word
+        for (int i = position; i >= 0; i = name.indexOf(query, i + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(i - 1))) {
+                return 2;
+            }
+        }
+        return 3;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Indexed product with its lower-cased name
+     */
+    private static class Entry {
+        private final Product product;
+        private final String normalizedName;
+
+        Entry(Product product) {
+            this.product = product;
+            this.normalizedName = normalize(product.getProductName());
+        }
+    }
+
+    private static class Match {
+        private final Entry entry;
+        private final int rank;
+
+        Match(Entry entry, int rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * Products by ID and the gram postings over their names
+     * Readers run without locks; a posting that briefly disagrees with an
+     * entry is harmless because every candidate is verified against its name.
+     */
+    private static class Snapshot {
+        private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+        void add(Entry entry) {
+            Integer productId = entry.product.getProductId();
+            entries.put(productId, entry);
+            for (String gram : grams(entry.normalizedName)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(productId);
+            }
+        }
+
+        void remove(Integer productId) {
+            Entry entry = entries.remove(productId);
+            if (entry == null) {
+                return;
+            }
+            for (String gram : grams(entry.normalizedName)) {
+                postings.computeIfPresent(gram, (g, ids) -> {
+                    ids.remove(productId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        /**
+         * Products whose names contain every trigram of the query
+         */
+        Set<Integer> candidates(String query) {
+            if (query.length() <= MAX_GRAM) {
+                return postings.getOrDefault(query, Set.of());
+            }
+
+            Map<String, Set<Integer>> queryPostings = new HashMap<>();
+            for (int i = 0; i + MAX_GRAM <= query.length(); i++) {
+                String gram = query.substring(i, i + MAX_GRAM);
+                Set<Integer> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                queryPostings.put(gram, ids);
+            }
+
+            // Start from the rarest trigram and keep the IDs every other trigram also lists
+            Optional<Set<Integer>> smallest = queryPostings.values().stream().min(Comparator.comparingInt(Set::size));
+            Set<Integer> result = new HashSet<>();
+            for (Integer productId : smallest.orElse(Set.of())) {
+                if (queryPostings.values().stream().allMatch(ids -> ids.contains(productId))) {
+                    result.add(productId);
+                }
+            }
+            return result;
+        }
+
+        private static Set<String> grams(String name) {
+            Set<String> grams = new HashSet<>();
+            for (int n = 1; n <= MAX_GRAM; n++) {
+                for (int i = 0; i + n <= name.length(); i++) {
+                    grams.add(name.substring(i, i + n));
+                }
+            }
+            return grams;
+        }
+    }
+}
@@ -4,11 +4,19 @@ import com.grocery.ordering.model.Product;
 import com.grocery.ordering.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service layer for Product operations
@@ -23,79 +31,110 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private InventoryReservationEngine inventoryReservationEngine;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
     /**
      * Register a new product with validation (admin only)
      */
     public Product registerProduct(Product product) {
-        // Validate product name
-        if (product.getProductName() == null || product.getProductName().trim().isEmpty()) {
-            throw new RuntimeException("Product name is required");
-        }
+        validateNewProduct(product);
 
-        // Validate price
-        if (product.getPrice() == null || product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Product price must be greater than 0");
-        }
-
-        // Validate quantity
-        if (product.getQuantity() == null || product.getQuantity() < 0) {
-            throw new RuntimeException("Product quantity cannot be negative");
-        }
-
-        // Set default reserved quantity
-        if (product.getReserved() == null) {
-            product.setReserved(0);
-        }
-
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productSearchIndex.index(savedProduct);
+        productCache.invalidateWithListings(null);
+        return savedProduct;
     }
 
     /**
      * Update product with validation (admin only)
      */
     public Product updateProduct(Integer productId, Product updatedProduct) {
-        Optional<Product> existingProductOpt = productRepository.findById(productId);
+        // Locked so a reservation flushed meanwhile is not overwritten with the stale reserved count
+        Optional<Product> existingProductOpt = productRepository.findByIdForUpdate(productId);
         if (existingProductOpt.isEmpty()) {
             throw new RuntimeException("Product not found with ID: " + productId);
         }
 
         Product existingProduct = existingProductOpt.get();
+        int previousAvailable = existingProduct.getAvailableQuantity();
+        applyChanges(existingProduct, updatedProduct);
+
+        Product savedProduct = productRepository.update(existingProduct);
+        inventoryReservationEngine.adjustStock(productId, savedProduct.getAvailableQuantity() - previousAvailable);
+        productSearchIndex.index(savedProduct);
+        productCache.invalidateWithListings(productId);
+        return savedProduct;
+    }
 
-        // Validate and update product name
-        if (updatedProduct.getProductName() != null && !updatedProduct.getProductName().trim().isEmpty()) {
-            existingProduct.setProductName(updatedProduct.getProductName().trim());
-        }
-
-        // Validate and update price
-        if (updatedProduct.getPrice() != null) {
-            if (updatedProduct.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-                throw new RuntimeException("Product price must be greater than 0");
+    /**
+     * Insert or update a chunk of imported products in one transaction (admin only)
+     * Rows with a product ID update that product with the rules of
+     * updateProduct, the others are registered with those of registerProduct.
+     * Existing products are read and locked with one query, then written with
+     * one batched UPDATE and one batched INSERT. Rows failing validation are
+     * skipped and reported by position; a database error fails the chunk.
+     */
+    public ImportResult importProducts(List<Product> rows) {
+        Map<Integer, String> errors = new HashMap<>();
+        Set<Integer> productIds = new HashSet<>();
+        for (Product row : rows) {
+            if (row.getProductId() != null) {
+                productIds.add(row.getProductId());
             }
-            existingProduct.setPrice(updatedProduct.getPrice());
+        }
+        Map<Integer, Product> existingById = new HashMap<>();
+        for (Product product : productRepository.findAllByIdsForUpdate(productIds)) {
+            existingById.put(product.getProductId(), product);
         }
 
-        // Validate and update quantity
-        if (updatedProduct.getQuantity() != null) {
-            if (updatedProduct.getQuantity() < 0) {
-                throw new RuntimeException("Product quantity cannot be negative");
+        Map<Integer, Product> updated = new LinkedHashMap<>();
+        Map<Integer, Integer> availableBefore = new HashMap<>();
+        List<Product> inserted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Product row = rows.get(i);
+            try {
+                if (row.getProductId() == null) {
+                    Product product = new Product(row);
+                    validateNewProduct(product);
+                    inserted.add(product);
+                    continue;
+                }
+                Product existing = updated.getOrDefault(row.getProductId(), existingById.get(row.getProductId()));
+                if (existing == null) {
+                    throw new RuntimeException("Product not found with ID: " + row.getProductId());
+                }
+                Product changed = new Product(existing);
+                applyChanges(changed, row);
+                availableBefore.putIfAbsent(row.getProductId(), existing.getAvailableQuantity());
+                updated.put(row.getProductId(), changed);
+            } catch (RuntimeException e) {
+                errors.put(i, e.getMessage());
             }
-            existingProduct.setQuantity(updatedProduct.getQuantity());
         }
 
-        // Update reserved quantity if provided
-        if (updatedProduct.getReserved() != null) {
-            if (updatedProduct.getReserved() < 0) {
-                throw new RuntimeException("Reserved quantity cannot be negative");
+        if (!updated.isEmpty()) {
+            productRepository.updateAll(new ArrayList<>(updated.values()));
+            for (Product product : updated.values()) {
+                Integer productId = product.getProductId();
+                inventoryReservationEngine.adjustStock(productId,
+                                                       product.getAvailableQuantity() - availableBefore.get(productId));
+                productSearchIndex.index(product);
             }
-            existingProduct.setReserved(updatedProduct.getReserved());
+            productCache.invalidateAll(updated.keySet());
         }
-
-        // Update customer ID if provided
-        if (updatedProduct.getCustomerId() != null) {
-            existingProduct.setCustomerId(updatedProduct.getCustomerId());
+        if (!inserted.isEmpty()) {
+            productRepository.saveAll(inserted);
+            inserted.forEach(productSearchIndex::index);
         }
-
-        return productRepository.update(existingProduct);
+        productCache.invalidateWithListings(null);
+        return new ImportResult(inserted.size(), updated.size(), errors);
     }
 
     /**
@@ -103,7 +142,15 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public Optional<Product> findById(Integer productId) {
-        return productRepository.findById(productId);
+        return productCache.get(productId, productRepository::findById);
+    }
+
+    /**
+     * Find several products by ID in one query
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findAllByIds(Collection<Integer> productIds) {
+        return productRepository.findAllByIds(productIds);
     }
 
     /**
@@ -115,7 +162,9 @@ public class ProductService {
             throw new RuntimeException("Search name cannot be empty");
         }
         
-        List<Product> products = productRepository.searchByName(name.trim());
+        List<Product> products = productSearchIndex.isReady()
+            ? productSearchIndex.search(name)
+            : productRepository.searchByName(name.trim());
         
         if (products.isEmpty()) {
             throw new RuntimeException("Product not found");
@@ -129,7 +178,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCache.getAll(productRepository::findAll, productRepository::findAllByIds);
     }
 
     /**
@@ -137,7 +186,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<Product> getAvailableProducts() {
-        return productRepository.findAvailableProducts();
+        return productCache.getAvailable(productRepository::findAvailableProducts, productRepository::findAllByIds);
     }
 
     /**
@@ -147,6 +196,9 @@ public class ProductService {
         if (!productRepository.existsById(productId)) {
             throw new RuntimeException("Product not found with ID: " + productId);
         }
+        inventoryReservationEngine.evict(productId);
+        productSearchIndex.remove(productId);
+        productCache.invalidateWithListings(productId);
         return productRepository.deleteById(productId);
     }
 
@@ -158,11 +210,18 @@ public class ProductService {
             throw new RuntimeException("Quantity cannot be negative");
         }
         
-        if (!productRepository.existsById(productId)) {
+        Optional<Product> productOpt = productRepository.findById(productId);
+        if (productOpt.isEmpty()) {
             throw new RuntimeException("Product not found with ID: " + productId);
         }
-        
-        return productRepository.updateQuantity(productId, newQuantity);
+
+        boolean updated = productRepository.updateQuantity(productId, newQuantity);
+        if (updated) {
+            inventoryReservationEngine.adjustStock(productId, newQuantity - productOpt.get().getQuantity());
+            productSearchIndex.updateQuantity(productId, newQuantity);
+            productCache.invalidateWithListings(productId);
+        }
+        return updated;
     }
 
     /**
@@ -173,19 +232,89 @@ public class ProductService {
             throw new RuntimeException("Quantity to reserve must be greater than 0");
         }
 
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found with ID: " + productId);
+        // The reservation itself is authoritative; only look the product up to explain a rejection
+        if (!inventoryReservationEngine.reserve(productId, quantityToReserve)) {
+            throw insufficientStockFor(productId, quantityToReserve);
         }
 
-        Product product = productOpt.get();
-        int availableQuantity = product.getAvailableQuantity();
-        
-        if (availableQuantity < quantityToReserve) {
-            throw new RuntimeException("Insufficient quantity available. Available: " + availableQuantity + ", Requested: " + quantityToReserve);
+        return true;
+    }
+
+    /**
+     * Reserve quantity without a surrounding transaction
+     * Returns the action that gives the quantity back if the order is not saved.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Runnable reserveProductQuantityDetached(Integer productId, Integer quantityToReserve) {
+        if (quantityToReserve <= 0) {
+            throw new RuntimeException("Quantity to reserve must be greater than 0");
+        }
+
+        return inventoryReservationEngine.reserveDetached(productId, quantityToReserve)
+            .orElseThrow(() -> insufficientStockFor(productId, quantityToReserve));
+    }
+
+    /**
+     * Reserve stock for a new order in a single statement
+     * By default this is one conditional UPDATE that also checks the customer,
+     * and its affected row count decides. With the opt-in in-memory engine the
+     * stock is taken in memory and the customer check is deferred to the
+     * orders foreign key when the order is saved, whose violation createOrder
+     * maps back to a rejection. Lookups only happen on rejection.
+     */
+    public void reserveForOrder(String customerId, Integer productId, int quantityToReserve) {
+        if (inventoryReservationEngine.isEnabled()) {
+            if (!inventoryReservationEngine.reserve(productId, quantityToReserve)) {
+                throw insufficientStockFor(productId, quantityToReserve);
+            }
+            return;
         }
 
-        return productRepository.reserveQuantity(productId, quantityToReserve);
+        if (!productRepository.reserveQuantityForCustomer(customerId, productId, quantityToReserve)) {
+            throw orderRejection(customerId, productId, quantityToReserve);
+        }
+        productCache.invalidate(productId);
+    }
+
+    /**
+     * Explain why an order for a customer and product was not admitted
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public OrderRejectedException orderRejection(String customerId, Integer productId, int quantityRequested) {
+        ProductRepository.AdmissionState state = productRepository.findAdmissionState(customerId, productId);
+        if (!state.isCustomerExists()) {
+            return new OrderRejectedException(OrderRejectedException.Reason.CUSTOMER_NOT_FOUND,
+                                              "Customer not found with ID: " + customerId);
+        }
+        if (!state.isProductExists()) {
+            return productNotFound(productId);
+        }
+        int availableQuantity = inventoryReservationEngine.getAvailableQuantity(productId)
+            .orElse(Math.max(0, state.getAvailableQuantity()));
+        return insufficientStock(availableQuantity, quantityRequested);
+    }
+
+    private OrderRejectedException insufficientStockFor(Integer productId, Integer quantityRequested) {
+        Optional<Integer> reservable = inventoryReservationEngine.getAvailableQuantity(productId);
+        if (reservable.isPresent()) {
+            return insufficientStock(reservable.get(), quantityRequested);
+        }
+        Optional<Product> productOpt = findById(productId);
+        if (productOpt.isEmpty()) {
+            return productNotFound(productId);
+        }
+        return insufficientStock(productOpt.get().getAvailableQuantity(), quantityRequested);
+    }
+
+    private static OrderRejectedException insufficientStock(int availableQuantity, int quantityRequested) {
+        return new OrderRejectedException(OrderRejectedException.Reason.INSUFFICIENT_STOCK,
+                                          "Insufficient quantity available. Available: " + availableQuantity +
+                                          ", Requested: " + quantityRequested, availableQuantity);
+    }
+
+    private static OrderRejectedException productNotFound(Integer productId) {
+        return new OrderRejectedException(OrderRejectedException.Reason.PRODUCT_NOT_FOUND,
+                                          "Product not found with ID: " + productId);
     }
 
     /**
@@ -200,7 +329,84 @@ public class ProductService {
             throw new RuntimeException("Product not found with ID: " + productId);
         }
 
-        return productRepository.releaseReservedQuantity(productId, quantityToRelease);
+        boolean released = productRepository.releaseReservedQuantity(productId, quantityToRelease);
+        if (released) {
+            inventoryReservationEngine.adjustStock(productId, quantityToRelease);
+            productCache.invalidate(productId);
+        }
+        return released;
+    }
+
+    /**
+     * Get product cache statistics (admin only)
+     */
+    @Transactional(readOnly = true)
+    public ProductCache.CacheStatistics getCacheStatistics() {
+        return productCache.getStatistics();
+    }
+
+    /**
+     * Validate a product to be registered and default its reserved quantity
+     */
+    private void validateNewProduct(Product product) {
+        // Validate product name
+        if (product.getProductName() == null || product.getProductName().trim().isEmpty()) {
+            throw new RuntimeException("Product name is required");
+        }
+
+        // Validate price
+        if (product.getPrice() == null || product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Product price must be greater than 0");
+        }
+
+        // Validate quantity
+        if (product.getQuantity() == null || product.getQuantity() < 0) {
+            throw new RuntimeException("Product quantity cannot be negative");
+        }
+
+        // Set default reserved quantity
+        if (product.getReserved() == null) {
+            product.setReserved(0);
+        }
+    }
+
+    /**
+     * Validate the fields given in an update and copy them onto the existing product
+     */
+    private void applyChanges(Product existingProduct, Product updatedProduct) {
+        // Validate and update product name
+        if (updatedProduct.getProductName() != null && !updatedProduct.getProductName().trim().isEmpty()) {
+            existingProduct.setProductName(updatedProduct.getProductName().trim());
+        }
+
+        // Validate and update price
+        if (updatedProduct.getPrice() != null) {
+            if (updatedProduct.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new RuntimeException("Product price must be greater than 0");
+            }
+            existingProduct.setPrice(updatedProduct.getPrice());
+        }
+
+        // Validate and update quantity
+        if (updatedProduct.getQuantity() != null) {
+            if (updatedProduct.getQuantity() < 0) {
+                throw new RuntimeException("Product quantity cannot be negative");
+            }
+            existingProduct.setQuantity(updatedProduct.getQuantity());
+        }
+
+        // Update reserved quantity if provided
+        if (updatedProduct.getReserved() != null) {
+            if (updatedProduct.getReserved() < 0) {
+                throw new RuntimeException("Reserved quantity cannot be negative");
+            }
+            existingProduct.setReserved(updatedProduct.getReserved());
+        }
+
+        // Update customer ID if provided
+        if (updatedProduct.getCustomerId() != null) {
+            existingProduct.setCustomerId(updatedProduct.getCustomerId());
+        }
     }
 
     /**
@@ -216,7 +422,12 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public boolean isProductAvailable(Integer productId, Integer requestedQuantity) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        Optional<Integer> reservable = inventoryReservationEngine.getAvailableQuantity(productId);
+        if (reservable.isPresent()) {
+            return reservable.get() >= requestedQuantity;
+        }
+
+        Optional<Product> productOpt = findById(productId);
         if (productOpt.isEmpty()) {
             return false;
         }
@@ -230,11 +441,35 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public int getAvailableQuantity(Integer productId) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        Optional<Integer> reservable = inventoryReservationEngine.getAvailableQuantity(productId);
+        if (reservable.isPresent()) {
+            return reservable.get();
+        }
+
+        Optional<Product> productOpt = findById(productId);
         if (productOpt.isEmpty()) {
             throw new RuntimeException("Product not found with ID: " + productId);
         }
 
         return productOpt.get().getAvailableQuantity();
     }
+
+    /**
+     * Outcome of one imported chunk; errors are keyed by the row's position in the chunk
+     */
+    public static class ImportResult {
+        private final int inserted;
+        private final int updated;
+        private final Map<Integer, String> errors;
+
+        public ImportResult(int inserted, int updated, Map<Integer, String> errors) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.errors = errors;
+        }
+
+        public int getInserted() { return inserted; }
+        public int getUpdated() { return updated; }
+        public Map<Integer, String> getErrors() { return errors; }
+    }
 }
@@ -0,0 +1,122 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order.OrderStatus;
+import com.grocery.ordering.repository.OrderRepository;
+import com.grocery.ordering.repository.OrderRepository.ReservedQuantities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cancels PENDING orders older than app.orders.reservation-expiry.ttl-ms
+ * and gives their reserved stock back
+ * Each chunk of up to batch-size orders is one short READ COMMITTED
+ * transaction: lock the oldest expired orders through idx_orders_status_date
+ * (skipping any a live request holds), read their reserved quantities, cancel
+ * them with one UPDATE (which also claims reservations the engine has not
+ * flushed yet), then release the quantities with one batched UPDATE per
+ * product. No gap locks are taken, so orders placed meanwhile never wait for
+ * a run.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@Component
+public class ReservationExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InventoryReservationEngine inventoryReservationEngine;
+
+    @Autowired
+    private OrderStatisticsTracker orderStatisticsTracker;
+
+    @Autowired
+    private OrderAnalyticsSnapshot orderAnalyticsSnapshot;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.orders.reservation-expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.orders.reservation-expiry.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${app.orders.reservation-expiry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.orders.reservation-expiry.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Cancel expired PENDING orders, a chunk at a time
+     * A run stops after max-batches-per-run chunks; the rest wait for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.reservation-expiry.interval-ms:60000}",
+               initialDelayString = "${app.orders.reservation-expiry.interval-ms:60000}")
+    public void expireReservations() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(ttlMs * 1_000_000);
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int expired;
+            try {
+                expired = transactionTemplate.execute(status -> expireBatch(cutoff));
+            } catch (RuntimeException e) {
+                logger.warn("Reservation expiry stopped after {} orders, will retry: {}", total, e.getMessage());
+                break;
+            }
+            total += expired;
+            if (expired < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Cancelled {} PENDING orders placed before {} and released their stock", total, cutoff);
+        }
+    }
+
+    private int expireBatch(LocalDateTime cutoff) {
+        List<Integer> orderIds = orderRepository.lockExpiredOrders(OrderStatus.PENDING, cutoff, batchSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        // Read before cancelling: the cancel claims deferred reservations as well
+        ReservedQuantities quantities = orderRepository.findReservedQuantities(orderIds);
+        int cancelled = orderRepository.cancelOrders(orderIds, OrderStatus.PENDING);
+        if (cancelled != orderIds.size()) {
+            throw new IllegalStateException("Expected to cancel " + orderIds.size() + " locked orders, cancelled " +
+                                            cancelled);
+        }
+        inventoryReservationEngine.releaseClaimed(quantities.getAppliedByProduct(), quantities.getReservedByProduct());
+        orderStatisticsTracker.recordTransitions(OrderStatus.PENDING, OrderStatus.CANCELLED, cancelled);
+        orderAnalyticsSnapshot.recordStatuses(orderIds, OrderStatus.CANCELLED);
+        return orderIds.size();
+    }
+}
@@ -0,0 +1,7 @@
+-- Track whether an order's reservation has been applied to products.reserved
+-- Orders admitted by the in-memory reservation engine are saved with FALSE
+-- and folded into products.reserved by the next flush.
+
+ALTER TABLE orders ADD COLUMN reservation_applied BOOLEAN NOT NULL DEFAULT TRUE;
+
+CREATE INDEX idx_orders_reservation ON orders(reservation_applied);
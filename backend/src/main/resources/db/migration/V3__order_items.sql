@@ -0,0 +1,37 @@
+-- Multi-item cart orders
+-- The parent order keeps the basket total and has no product of its own.
+
+ALTER TABLE orders MODIFY product_id INT NULL;
+
+CREATE TABLE IF NOT EXISTS order_items (
+    order_item_id INT AUTO_INCREMENT PRIMARY KEY,
+    order_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    line_amount DECIMAL(10,2) NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE,
+    CHECK (quantity > 0),
+    CHECK (unit_price >= 0)
+);
+
+CREATE INDEX idx_order_items_order ON order_items(order_id);
+CREATE INDEX idx_order_items_product ON order_items(product_id);
+
+-- Keep multi-item orders in the customer summary
+CREATE OR REPLACE VIEW customer_order_summary AS
+SELECT 
+    c.customer_id,
+    c.full_name,
+    o.order_id,
+    o.order_date,
+    o.product_id,
+    p.product_name,
+    o.order_amount,
+    o.quantity_ordered,
+    o.status
+FROM customers c
+JOIN orders o ON c.customer_id = o.customer_id
+LEFT JOIN products p ON o.product_id = p.product_id
+ORDER BY o.order_date DESC;
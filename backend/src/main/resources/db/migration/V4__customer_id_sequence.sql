@@ -0,0 +1,31 @@
+-- Collision-free customer IDs
+-- Customer IDs are allocated in blocks from id_sequences and widened from
+-- CUS + 3 digits to CUS + 7 digits; existing IDs are kept as they are.
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE customers MODIFY customer_id VARCHAR(12) NOT NULL;
+ALTER TABLE products MODIFY customer_id VARCHAR(12) NULL;
+ALTER TABLE orders MODIFY customer_id VARCHAR(12) NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
+
+CREATE TABLE IF NOT EXISTS id_sequences (
+    sequence_name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+INSERT INTO id_sequences (sequence_name, next_value) VALUES ('customer', 1)
+ON DUPLICATE KEY UPDATE sequence_name = sequence_name;
+
+-- The procedure parameter would otherwise truncate the longer IDs
+DROP PROCEDURE IF EXISTS GetCustomerOrders;
+
+DELIMITER //
+
+CREATE PROCEDURE GetCustomerOrders(IN customerId VARCHAR(12))
+BEGIN
+    SELECT * FROM customer_order_summary WHERE customer_id = customerId;
+END //
+
+DELIMITER ;
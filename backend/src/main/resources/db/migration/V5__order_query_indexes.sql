@@ -0,0 +1,29 @@
+-- Composite indexes for the order query set
+-- findByStatus, findByDateRange, findByCustomerId and the keyset-paginated
+-- listings filter on one column and sort by (order_date, order_id); each
+-- index below serves the filter and the sort without a filesort.
+
+CREATE INDEX idx_orders_status_date ON orders(status, order_date, order_id);
+CREATE INDEX idx_orders_customer_date ON orders(customer_id, order_date, order_id);
+CREATE INDEX idx_orders_date_id ON orders(order_date, order_id);
+CREATE INDEX idx_orders_product ON orders(product_id);
+
+-- Superseded by the composite indexes above (same leading column)
+DROP INDEX idx_orders_customer ON orders;
+DROP INDEX idx_orders_date ON orders;
+
+-- Callers sort; an ORDER BY inside the view only forces a sort of every row
+CREATE OR REPLACE VIEW customer_order_summary AS
+SELECT 
+    c.customer_id,
+    c.full_name,
+    o.order_id,
+    o.order_date,
+    o.product_id,
+    p.product_name,
+    o.order_amount,
+    o.quantity_ordered,
+    o.status
+FROM customers c
+JOIN orders o ON c.customer_id = o.customer_id
+LEFT JOIN products p ON o.product_id = p.product_id;
@@ -0,0 +1,9 @@
+-- HTTP sessions shared by all backend nodes
+-- A session exists before anyone signs in, so the user columns become
+-- optional; the session attributes are stored in a compact binary form.
+
+ALTER TABLE user_sessions MODIFY user_id VARCHAR(50) NULL;
+ALTER TABLE user_sessions MODIFY user_type ENUM('ADMIN', 'CUSTOMER') NULL;
+ALTER TABLE user_sessions ADD COLUMN last_accessed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE user_sessions ADD COLUMN max_inactive_seconds INT NOT NULL DEFAULT 1800;
+ALTER TABLE user_sessions ADD COLUMN attributes BLOB;
@@ -93,13 +93,13 @@ async function loadDashboardData() {
         }
 
         // Load recent orders
-        const ordersResponse = await fetch('/api/orders', {
+        const ordersResponse = await fetch('/api/orders?limit=5', {
             credentials: 'include'
         });
         
         if (ordersResponse.ok) {
             const ordersData = await ordersResponse.json();
-            displayRecentOrders(ordersData.data.slice(0, 5)); // Show only 5 recent orders
+            displayRecentOrders(ordersData.data.items); // Show only 5 recent orders
         }
 
         // Load low stock products
@@ -112,7 +112,7 @@
                     <div class="container-fluid">
                         <span class="navbar-brand">
                             <i class="fas fa-user-shield me-2"></i>
-                            Welcome, ${sessionScope.adminUser.username}
+                            Welcome, ${adminUser.username}
                         </span>
                         <div class="navbar-nav ms-auto">
                             <span class="nav-item nav-link">
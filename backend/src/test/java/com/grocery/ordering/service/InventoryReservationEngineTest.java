@@ -0,0 +1,110 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reserve, flush and recover with the in-memory reservation engine enabled
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@TestPropertySource(properties = "app.inventory.engine.enabled=true")
+class InventoryReservationEngineTest extends ServiceTestSupport {
+
+    @Autowired
+    private InventoryReservationEngine engine;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reservesInMemoryAndFlushFoldsOrdersIntoReserved() {
+        int productId = insertProduct(10);
+
+        Order first = orderService.createOrder(newOrder(productId, 4));
+        Order second = orderService.createOrder(newOrder(productId, 5));
+
+        assertThat(engine.getAvailableQuantity(productId)).contains(1);
+        assertThat(reserved(productId)).isZero();
+        assertThat(reservationApplied(first.getOrderId())).isFalse();
+
+        engine.flush();
+
+        assertThat(reserved(productId)).isEqualTo(9);
+        assertThat(reservationApplied(first.getOrderId())).isTrue();
+        assertThat(reservationApplied(second.getOrderId())).isTrue();
+        assertThat(engine.getAvailableQuantity(productId)).contains(1);
+
+        // A second flush has nothing left to apply
+        engine.flush();
+        assertThat(reserved(productId)).isEqualTo(9);
+    }
+
+    @Test
+    void rejectsWhatTheCounterCannotCover() {
+        int productId = insertProduct(3);
+        orderService.createOrder(newOrder(productId, 2));
+
+        assertThatThrownBy(() -> orderService.createOrder(newOrder(productId, 2)))
+            .isInstanceOfSatisfying(OrderRejectedException.class, e -> {
+                assertThat(e.getReason()).isEqualTo(OrderRejectedException.Reason.INSUFFICIENT_STOCK);
+                assertThat(e.getAvailableQuantity()).isEqualTo(1);
+            });
+
+        engine.flush();
+        assertThat(reserved(productId)).isEqualTo(2);
+    }
+
+    @Test
+    void givesTheQuantityBackWhenTheTransactionRollsBack() {
+        int productId = insertProduct(10);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(engine.reserve(productId, 6)).isTrue();
+            assertThat(engine.getAvailableQuantity(productId)).contains(4);
+            status.setRollbackOnly();
+        });
+
+        assertThat(engine.getAvailableQuantity(productId)).contains(10);
+    }
+
+    @Test
+    void cancellingBeforeTheFlushLeavesReservedUntouched() {
+        int productId = insertProduct(10);
+        Order order = orderService.createOrder(newOrder(productId, 7));
+
+        orderService.cancelOrder(order.getOrderId());
+        engine.flush();
+
+        assertThat(reserved(productId)).isZero();
+        assertThat(engine.getAvailableQuantity(productId)).contains(10);
+    }
+
+    @Test
+    void recoverAppliesOrdersLeftUnflushed() {
+        int productId = insertProduct(10);
+        // As left behind by a node that stopped before its flush
+        jdbcTemplate.update("INSERT INTO orders (customer_id, product_id, order_amount, quantity_ordered, " +
+                            "reservation_applied) VALUES (?, ?, ?, ?, FALSE)",
+                            CUSTOMER_ID, productId, new BigDecimal("30.00"), 3);
+        Integer orderId = jdbcTemplate.queryForObject("SELECT MAX(order_id) FROM orders", Integer.class);
+
+        engine.recover();
+
+        assertThat(reserved(productId)).isEqualTo(3);
+        assertThat(reservationApplied(orderId)).isTrue();
+        assertThat(engine.getAvailableQuantity(productId)).contains(7);
+    }
+}
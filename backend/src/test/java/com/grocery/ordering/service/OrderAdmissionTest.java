@@ -0,0 +1,91 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Single-product orders are admitted or rejected with the right reason
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+class OrderAdmissionTest extends ServiceTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void reservesStockWhenTheOrderIsSaved() {
+        int productId = insertProduct(10);
+
+        Order order = orderService.createOrder(newOrder(productId, 4));
+
+        assertThat(reserved(productId)).isEqualTo(4);
+        assertThat(reservationApplied(order.getOrderId())).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownCustomerWithoutReserving() {
+        int productId = insertProduct(10);
+        Order order = newOrder(productId, 4);
+        order.setCustomerId(UNKNOWN_CUSTOMER_ID);
+
+        assertRejected(order, OrderRejectedException.Reason.CUSTOMER_NOT_FOUND);
+        assertThat(reserved(productId)).isZero();
+    }
+
+    @Test
+    void rejectsUnknownProduct() {
+        assertRejected(newOrder(Integer.MAX_VALUE, 1), OrderRejectedException.Reason.PRODUCT_NOT_FOUND);
+    }
+
+    @Test
+    void rejectsShortfallWithTheQuantityLeft() {
+        int productId = insertProduct(5);
+        orderService.createOrder(newOrder(productId, 3));
+
+        assertThatThrownBy(() -> orderService.createOrder(newOrder(productId, 3)))
+            .isInstanceOfSatisfying(OrderRejectedException.class, e -> {
+                assertThat(e.getReason()).isEqualTo(OrderRejectedException.Reason.INSUFFICIENT_STOCK);
+                assertThat(e.getAvailableQuantity()).isEqualTo(2);
+            });
+        assertThat(reserved(productId)).isEqualTo(3);
+    }
+
+    private void assertRejected(Order order, OrderRejectedException.Reason reason) {
+        assertThatThrownBy(() -> orderService.createOrder(order))
+            .isInstanceOfSatisfying(OrderRejectedException.class, e -> assertThat(e.getReason()).isEqualTo(reason));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.inventory.engine.enabled=true")
+    class WithReservationEngine extends ServiceTestSupport {
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private InventoryReservationEngine engine;
+
+        @Test
+        void rejectsUnknownCustomerAtTheInsertAndGivesTheStockBack() {
+            int productId = insertProduct(10);
+            Order order = newOrder(productId, 4);
+            order.setCustomerId(UNKNOWN_CUSTOMER_ID);
+
+            // The orders foreign key is the customer check on this path
+            assertThatThrownBy(() -> orderService.createOrder(order))
+                .isInstanceOfSatisfying(OrderRejectedException.class, e ->
+                    assertThat(e.getReason()).isEqualTo(OrderRejectedException.Reason.CUSTOMER_NOT_FOUND));
+
+            assertThat(engine.getAvailableQuantity(productId)).contains(10);
+            engine.flush();
+            assertThat(reserved(productId)).isZero();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.dto.CheckoutRequest.CartItem;
+import com.grocery.ordering.model.Order;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Multi-item checkout reserves every line or none
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+class OrderCheckoutTest extends ServiceTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void reservesEveryLineWithRepeatedProductsMerged() {
+        int apples = insertProduct(10);
+        int bread = insertProduct(10);
+
+        Order order = orderService.checkout(CUSTOMER_ID, List.of(
+            new CartItem(apples, 1), new CartItem(bread, 4), new CartItem(apples, 2)));
+
+        assertThat(order.getItems()).hasSize(2);
+        assertThat(order.getQuantityOrdered()).isEqualTo(7);
+        assertThat(reserved(apples)).isEqualTo(3);
+        assertThat(reserved(bread)).isEqualTo(4);
+    }
+
+    @Test
+    void shortfallOnOneLineReservesNothing() {
+        int apples = insertProduct(10);
+        int bread = insertProduct(2);
+        int ordersBefore = orderCount();
+
+        assertThatThrownBy(() -> orderService.checkout(CUSTOMER_ID, List.of(
+            new CartItem(apples, 5), new CartItem(bread, 3))))
+            .hasMessageContaining("Insufficient quantity available for product " + bread);
+
+        assertThat(reserved(apples)).isZero();
+        assertThat(reserved(bread)).isZero();
+        assertThat(orderCount()).isEqualTo(ordersBefore);
+    }
+
+    private int orderCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.inventory.engine.enabled=true")
+    class WithReservationEngine extends ServiceTestSupport {
+
+        @Autowired
+        private OrderService orderService;
+
+        @Autowired
+        private InventoryReservationEngine engine;
+
+        @Test
+        void shortfallGivesBackTheLinesAlreadyTaken() {
+            int apples = insertProduct(10);
+            int bread = insertProduct(2);
+
+            assertThatThrownBy(() -> orderService.checkout(CUSTOMER_ID, List.of(
+                new CartItem(apples, 5), new CartItem(bread, 3))))
+                .hasMessageContaining("Insufficient quantity available for product " + bread);
+
+            assertThat(engine.getAvailableQuantity(apples)).contains(10);
+            assertThat(engine.getAvailableQuantity(bread)).contains(2);
+        }
+
+        @Test
+        void flushAppliesEveryLine() {
+            int apples = insertProduct(10);
+            int bread = insertProduct(10);
+
+            orderService.checkout(CUSTOMER_ID, List.of(new CartItem(apples, 5), new CartItem(bread, 3)));
+            assertThat(reserved(apples)).isZero();
+
+            engine.flush();
+
+            assertThat(reserved(apples)).isEqualTo(5);
+            assertThat(reserved(bread)).isEqualTo(3);
+            assertThat(engine.getAvailableQuantity(apples)).contains(5);
+        }
+    }
+}
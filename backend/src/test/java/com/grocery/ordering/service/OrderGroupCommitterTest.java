@@ -0,0 +1,114 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Orders placed together are saved in shared commits; one bad order fails alone
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@TestPropertySource(properties = {
+    "app.inventory.engine.enabled=true",
+    "app.orders.group-commit.enabled=true",
+    "app.orders.group-commit.max-wait-ms=50"
+})
+class OrderGroupCommitterTest extends ServiceTestSupport {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryReservationEngine engine;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void savesEveryConcurrentOrder() throws Exception {
+        int productId = insertProduct(100);
+
+        List<Future<Order>> results = placeTogether(CALLERS, i -> newOrder(productId, 2));
+
+        List<Integer> orderIds = new ArrayList<>();
+        for (Future<Order> result : results) {
+            orderIds.add(result.get().getOrderId());
+        }
+        assertThat(orderIds).doesNotContainNull().doesNotHaveDuplicates();
+        orderIds.forEach(orderId -> assertThat(status(orderId)).isEqualTo("PENDING"));
+
+        engine.flush();
+        assertThat(reserved(productId)).isEqualTo(2 * CALLERS);
+    }
+
+    @Test
+    void offendingOrderFailsAloneAndGivesItsStockBack() throws Exception {
+        int productId = insertProduct(100);
+
+        // The last caller's order violates the customers foreign key
+        List<Future<Order>> results = placeTogether(CALLERS, i -> {
+            Order order = newOrder(productId, 3);
+            if (i == CALLERS - 1) {
+                order.setCustomerId(UNKNOWN_CUSTOMER_ID);
+            }
+            return order;
+        });
+
+        for (int i = 0; i < CALLERS - 1; i++) {
+            assertThat(results.get(i).get().getOrderId()).isNotNull();
+        }
+        assertThatThrownBy(() -> results.get(CALLERS - 1).get())
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOfSatisfying(OrderRejectedException.class, e ->
+                assertThat(e.getReason()).isEqualTo(OrderRejectedException.Reason.CUSTOMER_NOT_FOUND));
+
+        assertThat(engine.getAvailableQuantity(productId)).contains(100 - 3 * (CALLERS - 1));
+        engine.flush();
+        assertThat(reserved(productId)).isEqualTo(3 * (CALLERS - 1));
+    }
+
+    /**
+     * Start all callers at once so their orders land in the same group commit window
+     */
+    private List<Future<Order>> placeTogether(int count, OrderFactory orders) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = orders.create(i);
+            Callable<Order> place = () -> {
+                start.await();
+                return orderService.createOrder(order);
+            };
+            results.add(callers.submit(place));
+        }
+        start.countDown();
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface OrderFactory {
+        Order create(int caller);
+    }
+}
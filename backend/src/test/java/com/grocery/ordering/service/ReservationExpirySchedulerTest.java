@@ -0,0 +1,91 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.dto.CheckoutRequest.CartItem;
+import com.grocery.ordering.model.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expired PENDING orders give back exactly the stock they reserved
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@TestPropertySource(properties = {
+    "app.inventory.engine.enabled=true",
+    "app.orders.reservation-expiry.ttl-ms=3600000",
+    "app.orders.reservation-expiry.batch-size=2"
+})
+class ReservationExpirySchedulerTest extends ServiceTestSupport {
+
+    @Autowired
+    private ReservationExpiryScheduler scheduler;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryReservationEngine engine;
+
+    @Test
+    void releasesExactlyWhatExpiredOrdersReserved() {
+        int apples = insertProduct(10);
+        int bread = insertProduct(10);
+
+        Order flushed = orderService.createOrder(newOrder(apples, 3));
+        Order cart = orderService.checkout(CUSTOMER_ID, List.of(new CartItem(apples, 1), new CartItem(bread, 4)));
+        engine.flush();
+        Order unflushed = orderService.createOrder(newOrder(apples, 2));
+        Order recent = orderService.createOrder(newOrder(apples, 1));
+        assertThat(reserved(apples)).isEqualTo(4);
+        assertThat(reserved(bread)).isEqualTo(4);
+
+        placedAt(LocalDateTime.now().minusHours(2), flushed, cart, unflushed);
+        scheduler.expireReservations();
+
+        assertThat(status(flushed.getOrderId())).isEqualTo("CANCELLED");
+        assertThat(status(cart.getOrderId())).isEqualTo("CANCELLED");
+        assertThat(status(unflushed.getOrderId())).isEqualTo("CANCELLED");
+        assertThat(status(recent.getOrderId())).isEqualTo("PENDING");
+
+        // Only the flushed orders were in products.reserved
+        assertThat(reserved(apples)).isZero();
+        assertThat(reserved(bread)).isZero();
+        assertThat(engine.getAvailableQuantity(apples)).contains(9);
+        assertThat(engine.getAvailableQuantity(bread)).contains(10);
+
+        // The cancelled unflushed order is not applied by a later flush
+        engine.flush();
+        assertThat(reserved(apples)).isEqualTo(1);
+        assertThat(reserved(bread)).isZero();
+        assertThat(engine.getAvailableQuantity(apples)).contains(9);
+    }
+
+    @Test
+    void leavesOrdersThatAreNoLongerPending() {
+        int apples = insertProduct(10);
+        Order confirmed = orderService.createOrder(newOrder(apples, 5));
+        orderService.updateOrderStatus(confirmed.getOrderId(), Order.OrderStatus.CONFIRMED);
+        engine.flush();
+
+        placedAt(LocalDateTime.now().minusHours(2), confirmed);
+        scheduler.expireReservations();
+
+        assertThat(status(confirmed.getOrderId())).isEqualTo("CONFIRMED");
+        assertThat(reserved(apples)).isEqualTo(5);
+        assertThat(engine.getAvailableQuantity(apples)).contains(5);
+    }
+
+    private void placedAt(LocalDateTime orderDate, Order... orders) {
+        for (Order order : orders) {
+            jdbcTemplate.update("UPDATE orders SET order_date = ? WHERE order_id = ?",
+                                Timestamp.valueOf(orderDate), order.getOrderId());
+        }
+    }
+}
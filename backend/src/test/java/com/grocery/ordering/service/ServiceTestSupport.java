@@ -0,0 +1,137 @@
+package com.grocery.ordering.service;
+
+import com.grocery.ordering.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service layer started against an embedded H2 database (MySQL mode)
+ * Every application context gets a fresh database built from
+ * database/init.sql. The scheduled flush and expiry runs are pushed an hour
+ * out so tests drive them; each test inserts its own products so tests
+ * sharing a context do not see each other's stock.
+ *
+ * @author Chirag Singhal (chirag127)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "app.inventory.engine.flush-interval-ms=3600000",
+    "app.orders.reservation-expiry.interval-ms=3600000",
+    "logging.level.com.grocery.ordering=WARN"
+})
+abstract class ServiceTestSupport {
+
+    static final String CUSTOMER_ID = "CUS001";
+    static final String UNKNOWN_CUSTOMER_ID = "CUS9999999";
+
+    private static final AtomicInteger PRODUCT_NAMES = new AtomicInteger();
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", ServiceTestSupport::createDatabase);
+    }
+
+    /**
+     * Insert a product with the given stock and nothing reserved
+     */
+    protected int insertProduct(int quantity) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO products (product_name, price, quantity) VALUES (?, ?, ?)", new String[]{"product_id"});
+            ps.setString(1, "Test Product " + PRODUCT_NAMES.incrementAndGet());
+            ps.setBigDecimal(2, BigDecimal.TEN);
+            ps.setInt(3, quantity);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().intValue();
+    }
+
+    protected static Order newOrder(int productId, int quantity) {
+        return new Order(CUSTOMER_ID, productId, null, quantity);
+    }
+
+    protected int reserved(int productId) {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM products WHERE product_id = ?",
+                                           Integer.class, productId);
+    }
+
+    protected boolean reservationApplied(int orderId) {
+        return jdbcTemplate.queryForObject("SELECT reservation_applied FROM orders WHERE order_id = ?",
+                                           Boolean.class, orderId);
+    }
+
+    protected String status(int orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE order_id = ?",
+                                           String.class, orderId);
+    }
+
+    private static String createDatabase() {
+        String url = "jdbc:h2:mem:test" + System.nanoTime() +
+                     ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        for (String statement : readSchema(Path.of("../database/init.sql"))) {
+            jdbcTemplate.execute(statement);
+        }
+        return url;
+    }
+
+    /**
+     * Split init.sql into statements H2 can execute
+     * Stored procedures, USE, GRANT, FLUSH and the trailing SELECTs are skipped.
+     */
+    private static List<String> readSchema(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inDelimiterBlock = false;
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("DELIMITER")) {
+                inDelimiterBlock = !trimmed.equals("DELIMITER ;");
+                continue;
+            }
+            if (inDelimiterBlock || trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                current.setLength(0);
+                String keyword = statement.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+                if (!List.of("USE", "GRANT", "FLUSH", "SELECT").contains(keyword)) {
+                    statements.add(statement.substring(0, statement.length() - 1));
+                }
+            }
+        }
+        return statements;
+    }
+}
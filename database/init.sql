@@ -15,7 +15,7 @@ CREATE TABLE IF NOT EXISTS admin_users (
 
 -- Create customers table
 CREATE TABLE IF NOT EXISTS customers (
-    customer_id VARCHAR(6) PRIMARY KEY,
+    customer_id VARCHAR(12) PRIMARY KEY,
     full_name VARCHAR(100) NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
     password VARCHAR(255) NOT NULL,
@@ -25,6 +25,32 @@ CREATE TABLE IF NOT EXISTS customers (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- Create schema_version table (migrations in backend/src/main/resources/db/migration)
+CREATE TABLE IF NOT EXISTS schema_version (
+    version INT PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    checksum BIGINT,
+    installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    execution_ms INT NOT NULL DEFAULT 0,
+    success BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+-- This script already contains every migration up to the version below
+INSERT INTO schema_version (version, description) VALUES 
+(1, 'initial schema'),
+(2, 'order reservation tracking'),
+(3, 'order items'),
+(4, 'customer id sequence'),
+(5, 'order query indexes'),
+(6, 'shared sessions')
+ON DUPLICATE KEY UPDATE version = version;
+
+-- Create id_sequences table (hi/lo blocks for generated IDs such as customer IDs)
+CREATE TABLE IF NOT EXISTS id_sequences (
+    sequence_name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
 -- Create products table
 CREATE TABLE IF NOT EXISTS products (
     product_id INT AUTO_INCREMENT PRIMARY KEY,
@@ -32,7 +58,7 @@ CREATE TABLE IF NOT EXISTS products (
     price DECIMAL(10,2) NOT NULL,
     quantity INT NOT NULL DEFAULT 0,
     reserved INT DEFAULT 0,
-    customer_id VARCHAR(6),
+    customer_id VARCHAR(12),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (customer_id) REFERENCES customers(customer_id) ON DELETE SET NULL,
@@ -44,26 +70,45 @@ CREATE TABLE IF NOT EXISTS products (
 -- Create orders table
 CREATE TABLE IF NOT EXISTS orders (
     order_id INT AUTO_INCREMENT PRIMARY KEY,
-    customer_id VARCHAR(6) NOT NULL,
-    product_id INT NOT NULL,
+    customer_id VARCHAR(12) NOT NULL,
+    product_id INT NULL,
     order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     order_amount DECIMAL(10,2) NOT NULL,
     quantity_ordered INT NOT NULL DEFAULT 1,
     status ENUM('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED') DEFAULT 'PENDING',
+    reservation_applied BOOLEAN NOT NULL DEFAULT TRUE,
     FOREIGN KEY (customer_id) REFERENCES customers(customer_id) ON DELETE CASCADE,
     FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE,
     CHECK (order_amount >= 0),
     CHECK (quantity_ordered > 0)
 );
 
+-- Create order_items table for multi-item cart orders
+-- (the parent order has product_id NULL and the basket total in order_amount)
+CREATE TABLE IF NOT EXISTS order_items (
+    order_item_id INT AUTO_INCREMENT PRIMARY KEY,
+    order_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    line_amount DECIMAL(10,2) NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE,
+    CHECK (quantity > 0),
+    CHECK (unit_price >= 0)
+);
+
 -- Create sessions table for session management
 CREATE TABLE IF NOT EXISTS user_sessions (
     session_id VARCHAR(255) PRIMARY KEY,
-    user_id VARCHAR(50) NOT NULL,
-    user_type ENUM('ADMIN', 'CUSTOMER') NOT NULL,
+    user_id VARCHAR(50) NULL,
+    user_type ENUM('ADMIN', 'CUSTOMER') NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     expires_at TIMESTAMP NOT NULL,
-    is_active BOOLEAN DEFAULT TRUE
+    is_active BOOLEAN DEFAULT TRUE,
+    last_accessed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    max_inactive_seconds INT NOT NULL DEFAULT 1800,
+    attributes BLOB
 );
 
 -- Insert default admin user (password: admin123 - will be BCrypt encoded in application)
@@ -90,6 +135,10 @@ INSERT INTO products (product_name, price, quantity) VALUES
 ('Tea (250g)', 180.00, 90)
 ON DUPLICATE KEY UPDATE product_name = product_name;
 
+-- Start the customer ID sequence
+INSERT INTO id_sequences (sequence_name, next_value) VALUES ('customer', 1)
+ON DUPLICATE KEY UPDATE sequence_name = sequence_name;
+
 -- Insert sample customer for testing
 INSERT INTO customers (customer_id, full_name, email, password, address, contact_number) VALUES 
 ('CUS001', 'John Doe', 'john.doe@email.com', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lbdxIcnvtcflQjXaC', '123 Main Street, City, State 12345', '9876543210')
@@ -105,8 +154,13 @@ ON DUPLICATE KEY UPDATE order_id = order_id;
 -- Create indexes for better performance
 CREATE INDEX idx_customers_email ON customers(email);
 CREATE INDEX idx_products_name ON products(product_name);
-CREATE INDEX idx_orders_customer ON orders(customer_id);
-CREATE INDEX idx_orders_date ON orders(order_date);
+CREATE INDEX idx_orders_status_date ON orders(status, order_date, order_id);
+CREATE INDEX idx_orders_customer_date ON orders(customer_id, order_date, order_id);
+CREATE INDEX idx_orders_date_id ON orders(order_date, order_id);
+CREATE INDEX idx_orders_product ON orders(product_id);
+CREATE INDEX idx_orders_reservation ON orders(reservation_applied);
+CREATE INDEX idx_order_items_order ON order_items(order_id);
+CREATE INDEX idx_order_items_product ON order_items(product_id);
 CREATE INDEX idx_sessions_user ON user_sessions(user_id, user_type);
 CREATE INDEX idx_sessions_expires ON user_sessions(expires_at);
 
@@ -117,20 +171,19 @@ SELECT
     c.full_name,
     o.order_id,
     o.order_date,
-    p.product_id,
+    o.product_id,
     p.product_name,
     o.order_amount,
     o.quantity_ordered,
     o.status
 FROM customers c
 JOIN orders o ON c.customer_id = o.customer_id
-JOIN products p ON o.product_id = p.product_id
-ORDER BY o.order_date DESC;
+LEFT JOIN products p ON o.product_id = p.product_id;
 
 -- Create stored procedures for common operations
 DELIMITER //
 
-CREATE PROCEDURE GetCustomerOrders(IN customerId VARCHAR(6))
+CREATE PROCEDURE GetCustomerOrders(IN customerId VARCHAR(12))
 BEGIN
     SELECT * FROM customer_order_summary WHERE customer_id = customerId;
 END //